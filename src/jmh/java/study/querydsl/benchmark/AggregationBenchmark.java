@@ -0,0 +1,84 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.QTeamAgeSummary;
+import study.querydsl.dto.TeamAgeSummary;
+import study.querydsl.support.ColumnarResult;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 집계 결과를 Tuple / 레코드 / 열 배열로 받을 때 비교
+ * 그룹 수를 늘리려고 (team, age) 로 묶는다. (teams * 100 그룹)
+ * 소비 비용까지 보려고 모든 행의 값을 읽는다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    private static final NumberTemplate<Long> AGE_SUM = Expressions.numberTemplate(Long.class, "sum({0})", member.age);
+
+    @Benchmark
+    public void tuple(SeededDatabase db, Blackhole bh) {
+        List<Tuple> rows = db.read(() -> db.queryFactory
+                .select(member.team.id, member.count(), AGE_SUM, member.age.avg(), member.age.max())
+                .from(member)
+                .groupBy(member.team.id, member.age)
+                .fetch());
+        for (Tuple row : rows) {
+            bh.consume(row.get(member.count()));
+            bh.consume(row.get(AGE_SUM));
+            bh.consume(row.get(member.age.avg()));
+            bh.consume(row.get(member.age.max()));
+        }
+    }
+
+    @Benchmark
+    public void record(SeededDatabase db, Blackhole bh) {
+        List<TeamAgeSummary> rows = db.read(() -> db.queryFactory
+                .select(new QTeamAgeSummary(member.team.id.stringValue(), member.count(), AGE_SUM,
+                        member.age.avg(), member.age.min(), member.age.max()))
+                .from(member)
+                .groupBy(member.team.id, member.age)
+                .fetch());
+        for (TeamAgeSummary row : rows) {
+            bh.consume(row.memberCount());
+            bh.consume(row.ageSum());
+            bh.consume(row.averageAge());
+            bh.consume(row.maxAge());
+        }
+    }
+
+    @Benchmark
+    public void columnar(SeededDatabase db, Blackhole bh) {
+        ColumnarResult result = db.read(() -> ColumnarResult.columns()
+                .key("team", member.team.id)
+                .longColumn("count", member.count())
+                .longColumn("ageSum", AGE_SUM)
+                .doubleColumn("avgAge", member.age.avg())
+                .intColumn("maxAge", member.age.max())
+                .fetch(db.queryFactory
+                        .from(member)
+                        .groupBy(member.team.id, member.age)));
+        long[] counts = result.longs("count");
+        long[] sums = result.longs("ageSum");
+        double[] avgs = result.doubles("avgAge");
+        int[] maxes = result.ints("maxAge");
+        for (int i = 0; i < result.size(); i++) {
+            bh.consume(counts[i]);
+            bh.consume(sums[i]);
+            bh.consume(avgs[i]);
+            bh.consume(maxes[i]);
+        }
+    }
+}
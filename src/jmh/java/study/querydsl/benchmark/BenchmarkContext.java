@@ -0,0 +1,21 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * bench 프로파일(application-bench.yml): tcp H2 대신 인메모리 H2 를 쓰고, SQL 로그는 꺼서 측정값에 섞이지 않게 한다.
+ */
+public abstract class BenchmarkContext {
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .properties(properties)
+                .run();
+    }
+}
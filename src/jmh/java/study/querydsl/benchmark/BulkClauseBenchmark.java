@@ -0,0 +1,43 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 벌크 update/delete, 매 호출 롤백하므로 데이터는 그대로 유지된다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkClauseBenchmark {
+
+    @Benchmark
+    public long bulkUpdate(SeededDatabase db) {
+        return db.rollback(() -> db.queryFactory
+                .update(member)
+                .set(member.username, "bulk")
+                .where(member.age.lt(28))
+                .execute());
+    }
+
+    @Benchmark
+    public long bulkAdd(SeededDatabase db) {
+        return db.rollback(() -> db.queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+    }
+
+    @Benchmark
+    public long bulkDelete(SeededDatabase db) {
+        return db.rollback(() -> db.queryFactory
+                .delete(member)
+                .where(member.age.gt(18))
+                .execute());
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.repository.MemberQueryRepository;
+import study.querydsl.support.MemberFixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 동적 검색: 매번 식을 새로 만드는 방식(searchMember1/2) vs 조건 모양별 템플릿 캐시
+ * 호출당 할당량은 gc 프로파일러의 gc.alloc.rate.norm 으로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicSearchBenchmark {
+
+    @Param({"member1", ""})
+    String username;
+
+    @Param({"10"})
+    int age;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    MemberQueryRepository memberQueryRepository;
+    TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        MemberFixtures.seed(context.getBean(JdbcTemplate.class), 100, 10_000);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        memberQueryRepository = context.getBean(MemberQueryRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> booleanBuilder() {
+        String usernameCond = username.isEmpty() ? null : username;
+        return readOnly.execute(status -> {
+            BooleanBuilder builder = new BooleanBuilder();
+            if (usernameCond != null) {
+                builder.and(member.username.eq(usernameCond));
+            }
+            builder.and(member.age.eq(age));
+            return queryFactory
+                    .select(new QMemberDto(member.username, member.age))
+                    .from(member)
+                    .where(builder)
+                    .fetch();
+        });
+    }
+
+    @Benchmark
+    public List<MemberDto> whereParams() {
+        String usernameCond = username.isEmpty() ? null : username;
+        return readOnly.execute(status -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(usernameEq(usernameCond), member.age.eq(age))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> templateCache() {
+        return memberQueryRepository.search(username.isEmpty() ? null : username, age);
+    }
+
+    private Predicate usernameEq(String usernameCond) {
+        return usernameCond != null ? member.username.eq(usernameCond) : null;
+    }
+}
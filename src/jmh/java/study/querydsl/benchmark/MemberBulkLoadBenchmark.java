@@ -0,0 +1,108 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.service.MemberBulkLoader;
+import study.querydsl.service.MemberInsertRow;
+import study.querydsl.support.MemberFixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 1k 팀에 1M 회원 적재. 결과는 회원 1건당 시간이므로 rows/sec = 1 / score
+ * baseline: 배치 설정 없이 한 건씩 persist (기존 방식)
+ *           하이버네이트 JDBC 배치를 끄고, pooled 옵티마이저도 꺼서 id 를 행마다 시퀀스에서 받는다.
+ *           MemberBulkLoader 의 flush/clear 단위(querydsl.bulk.load-batch-size)는 그대로
+ * tuned: batch_size/order_inserts + flush/clear 적재, JDBC 직접 적재
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MemberBulkLoadBenchmark {
+
+    private static final int TEAMS = 1_000;
+    private static final int MEMBERS = 1_000_000;
+
+    @Param({"baseline", "tuned"})
+    String settings;
+
+    ConfigurableApplicationContext context;
+    JdbcTemplate jdbcTemplate;
+    EntityManager em;
+    TransactionTemplate tx;
+    MemberBulkLoader memberBulkLoader;
+    List<Team> teams;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "baseline".equals(settings)
+                ? BenchmarkContext.start(
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+                        "spring.jpa.properties.hibernate.order_inserts=false",
+                        "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=none")
+                : BenchmarkContext.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        memberBulkLoader = context.getBean(MemberBulkLoader.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetData() {
+        MemberFixtures.clear(jdbcTemplate);
+        teams = new ArrayList<>(TEAMS);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public void persistOneByOne() {
+        tx.executeWithoutResult(status -> members().forEach(em::persist));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long bulkLoader() {
+        return memberBulkLoader.load(members());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long jdbcFastPath() {
+        return memberBulkLoader.insertRows(IntStream.range(0, MEMBERS)
+                .mapToObj(i -> new MemberInsertRow("member" + i, i % 100, teams.get(i % TEAMS).getId())));
+    }
+
+    //생성자로 팀을 넘기면 Team.members 에 1M 건이 쌓이므로 setTeam 으로 FK 만 연결
+    private Stream<Member> members() {
+        return IntStream.range(0, MEMBERS).mapToObj(i -> {
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(teams.get(i % TEAMS));
+            return member;
+        });
+    }
+}
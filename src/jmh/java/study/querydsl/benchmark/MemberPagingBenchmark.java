@@ -0,0 +1,97 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.KeysetSlice;
+import study.querydsl.repository.MemberCursor;
+import study.querydsl.repository.MemberQueryRepository;
+import study.querydsl.support.MemberFixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * offset/limit + fetchResults 와 키셋 페이징을 1페이지, 10,000페이지에서 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "10000"})
+    int page;
+
+    @Param({"300000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    MemberQueryRepository memberQueryRepository;
+    TransactionTemplate readOnly;
+    String token;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        MemberFixtures.seed(context.getBean(JdbcTemplate.class), 1000, members);
+
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        memberQueryRepository = context.getBean(MemberQueryRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        //page 번째 페이지 직전 행을 커서로 잡아둔다
+        token = page == 1 ? null : readOnly.execute(status -> {
+            Member last = queryFactory
+                    .selectFrom(member)
+                    .orderBy(member.age.asc(), member.id.asc())
+                    .offset((long) (page - 1) * PAGE_SIZE - 1)
+                    .limit(1)
+                    .fetchOne();
+            return new MemberCursor(last.getAge(), last.getId()).encode();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Object offsetFetchResults() {
+        return readOnly.execute(status -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc(), member.id.asc())
+                .offset((long) (page - 1) * PAGE_SIZE)
+                .limit(PAGE_SIZE)
+                .fetchResults());
+    }
+
+    @Benchmark
+    public List<MemberDto> keyset() {
+        KeysetSlice<MemberDto> slice = memberQueryRepository.findSlice(token, PAGE_SIZE, false);
+        return slice.getContent();
+    }
+
+    @Benchmark
+    public List<MemberDto> keysetWithCachedCount() {
+        KeysetSlice<MemberDto> slice = memberQueryRepository.findSlice(token, PAGE_SIZE, true);
+        return slice.getContent();
+    }
+}
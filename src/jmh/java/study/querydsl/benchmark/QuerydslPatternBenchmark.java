@@ -0,0 +1,109 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import org.openjdk.jmh.annotations.*;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * QuerydslBasicTest 의 조회 패턴별 처리량/지연 분포
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuerydslPatternBenchmark {
+
+    @Benchmark
+    public Member selectFromWhere(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1"), member.age.eq(1))
+                .fetchOne());
+    }
+
+    @Benchmark
+    public List<Member> join(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .join(member.team, team)
+                .where(team.name.eq("team1"))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Member> fetchJoin(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .where(member.age.eq(10))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Member> subQueryMax(SeededDatabase db) {
+        QMember memberSub = new QMember("memberSub");
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(
+                        JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub)))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Member> subQueryGoe(SeededDatabase db) {
+        QMember memberSub = new QMember("memberSub");
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(
+                        JPAExpressions
+                                .select(memberSub.age.avg())
+                                .from(memberSub)))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Member> subQueryIn(SeededDatabase db) {
+        QMember memberSub = new QMember("memberSub");
+        return db.read(() -> db.queryFactory
+                .selectFrom(member)
+                .where(member.age.in(
+                        JPAExpressions
+                                .select(memberSub.age)
+                                .from(memberSub)
+                                .where(memberSub.age.gt(90))))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<String> basicCase(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.age
+                        .when(10).then("ten")
+                        .when(20).then("twenty")
+                        .otherwise("etc"))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<String> complexCase(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(new CaseBuilder()
+                        .when(member.age.between(0, 20)).then("0~20")
+                        .when(member.age.between(21, 30)).then("21~30")
+                        .otherwise("etc"))
+                .from(member)
+                .fetch());
+    }
+}
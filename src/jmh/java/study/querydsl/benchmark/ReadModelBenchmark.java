@@ -0,0 +1,75 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import study.querydsl.dto.MemberView;
+import study.querydsl.dto.QMemberView;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.support.JpaQueryHints.readOnly;
+
+/**
+ * 조회 요청 하나(회원 100건 + 팀명) 기준 엔티티 경로와 읽기 모델 경로 비교
+ * gc.alloc.rate.norm 이 요청당 힙 할당량, 쓰기 트랜잭션 결과에는 커밋 시 flush(dirty checking) 시간이 포함된다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Benchmark
+    public List<MemberView> entityInReadWriteTx(SeededDatabase db) {
+        return db.readWrite(() -> toViews(fetchEntities(db)));
+    }
+
+    @Benchmark
+    public List<MemberView> entityInReadOnlyTx(SeededDatabase db) {
+        return db.read(() -> toViews(fetchEntities(db)));
+    }
+
+    @Benchmark
+    public List<MemberView> projectionInReadWriteTx(SeededDatabase db) {
+        return db.readWrite(() -> fetchViews(db));
+    }
+
+    @Benchmark
+    public List<MemberView> projectionInReadOnlyTx(SeededDatabase db) {
+        return db.read(() -> fetchViews(db));
+    }
+
+    private List<Member> fetchEntities(SeededDatabase db) {
+        return db.queryFactory
+                .selectFrom(member)
+                .join(member.team, team).fetchJoin()
+                .orderBy(member.id.asc())
+                .limit(PAGE_SIZE)
+                .fetch();
+    }
+
+    private List<MemberView> fetchViews(SeededDatabase db) {
+        return readOnly(db.queryFactory
+                .select(new QMemberView(member.id, member.username, member.age, team.name))
+                .from(member)
+                .join(member.team, team)
+                .orderBy(member.id.asc())
+                .limit(PAGE_SIZE))
+                .fetch();
+    }
+
+    private static List<MemberView> toViews(List<Member> members) {
+        List<MemberView> views = new ArrayList<>(members.size());
+        for (Member m : members) {
+            views.add(new MemberView(m.getId(), m.getUsername(), m.getAge(), m.getTeam().getName()));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.support.MemberFixtures;
+
+import java.util.function.Supplier;
+
+/**
+ * 패턴별 벤치마크가 공유하는 인메모리 H2 + 시드 데이터
+ * 데이터 크기는 -p members=...,teams=... 로 바꿀 수 있다.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param({"1000", "100000"})
+    public int members;
+
+    @Param({"100"})
+    public int teams;
+
+    public ConfigurableApplicationContext context;
+    public JPAQueryFactory queryFactory;
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate rollback;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        MemberFixtures.seed(context.getBean(JdbcTemplate.class), teams, members);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        rollback = new TransactionTemplate(transactionManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T read(Supplier<T> work) {
+        return readOnly.execute(status -> work.get());
+    }
+
+    /**
+     * 일반 쓰기 트랜잭션 (커밋 시 flush/dirty checking 포함)
+     */
+    public <T> T readWrite(Supplier<T> work) {
+        return readWrite.execute(status -> work.get());
+    }
+
+    /**
+     * 벌크 연산용: 매 호출이 같은 데이터를 보도록 실행 후 롤백
+     */
+    public <T> T rollback(Supplier<T> work) {
+        return rollback.execute(status -> {
+            T result = work.get();
+            status.setRollbackOnly();
+            return result;
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import org.openjdk.jmh.annotations.*;
+import study.querydsl.entity.QMember;
+import study.querydsl.support.SubqueryRewriter;
+import study.querydsl.support.WindowFunctions;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * subQuery/subQueryGoe/subQueryIn/findUserDto 패턴의 서브쿼리 버전과 재작성 버전 비교
+ * 100만 건 기준은 ./gradlew jmh -PjmhIncludes=SubqueryBenchmark 에 -p members=1000000 을 넘겨서 돌린다.
+ * 재작성 버전의 시간에는 값을 미리 구하는 쿼리도 포함된다.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubqueryBenchmark {
+
+    private static final QMember memberSub = new QMember("memberSub");
+
+    @State(Scope.Benchmark)
+    public static class Rewriter {
+        SubqueryRewriter subqueryRewriter;
+
+        @Setup(Level.Trial)
+        public void setUp(SeededDatabase db) {
+            subqueryRewriter = db.context.getBean(SubqueryRewriter.class);
+        }
+    }
+
+    @Benchmark
+    public List<Long> eqMaxSubquery(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.age.eq(JPAExpressions.select(memberSub.age.max()).from(memberSub)))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Long> eqMaxPrecomputed(SeededDatabase db, Rewriter rewriter) {
+        //빈 테이블이면 비교할 값이 없으므로 바깥 쿼리 없이 빈 결과
+        return db.read(() -> rewriter.subqueryRewriter
+                .scalar(JPAExpressions.select(memberSub.age.max()).from(memberSub))
+                .map(maxAge -> db.queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(member.age.eq(maxAge))
+                        .fetch())
+                .orElse(List.of()));
+    }
+
+    @Benchmark
+    public List<Long> goeAvgSubquery(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.age.goe(JPAExpressions.select(memberSub.age.avg()).from(memberSub)))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Long> goeAvgPrecomputed(SeededDatabase db, Rewriter rewriter) {
+        //빈 테이블이면 비교할 값이 없으므로 바깥 쿼리 없이 빈 결과
+        return db.read(() -> rewriter.subqueryRewriter
+                .scalar(JPAExpressions.select(memberSub.age.avg()).from(memberSub))
+                .map(avgAge -> db.queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(member.age.goe(avgAge))
+                        .fetch())
+                .orElse(List.of()));
+    }
+
+    @Benchmark
+    public List<Long> inSubquery(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.age.in(JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.gt(90))))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Long> inPrecomputedList(SeededDatabase db, Rewriter rewriter) {
+        return db.read(() -> db.queryFactory
+                .select(member.id)
+                .from(member)
+                .where(rewriter.subqueryRewriter.in(member.age,
+                        JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.gt(90))))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Tuple> selectScalarSubquery(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.username,
+                        ExpressionUtils.as(JPAExpressions.select(memberSub.age.max()).from(memberSub), "maxAge"))
+                .from(member)
+                .fetch());
+    }
+
+    //바깥 쿼리에 조건이 없어야 over () 가 서브쿼리와 같은 값이다 (WindowFunctions 참고)
+    @Benchmark
+    public List<Tuple> selectWindowFunction(SeededDatabase db) {
+        return db.read(() -> db.queryFactory
+                .select(member.username, WindowFunctions.maxOver(member.age))
+                .from(member)
+                .fetch());
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.*;
+import study.querydsl.dto.MemberView;
+import study.querydsl.dto.QMemberView;
+import study.querydsl.repository.MemberReadRepository;
+import study.querydsl.support.TrigramIndex;
+import study.querydsl.support.UsernameIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.support.JpaQueryHints.readOnly;
+
+/**
+ * username 부분 검색: like '%x%' (전체 스캔) 와 UsernameIndex -> member.id.in 비교
+ * 100만 건 기준은 ./gradlew jmh -PjmhIncludes=UsernameSearchBenchmark 에 -p members=1000000 을 넘겨서 돌린다.
+ * 시드 데이터는 JDBC 로 넣으므로 색인은 trial 마다 다시 만든다. (만드는 시간은 측정에 들어가지 않음)
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsernameSearchBenchmark {
+
+    private static final int LIMIT = 100;
+
+    //member1..memberN 중 12345 는 중간에 걸리는 드문 조각, ber9 는 10% 정도에 걸리는 흔한 조각
+    @Param({"12345", "ber9"})
+    public String fragment;
+
+    @State(Scope.Benchmark)
+    public static class Index {
+        MemberReadRepository memberReadRepository;
+
+        @Setup(Level.Trial)
+        public void setUp(SeededDatabase db) {
+            db.context.getBean(UsernameIndex.class).rebuild();
+            memberReadRepository = db.context.getBean(MemberReadRepository.class);
+        }
+    }
+
+    @Benchmark
+    public List<MemberView> like(SeededDatabase db) {
+        return db.read(() -> views(db)
+                .where(member.username.like("%" + fragment + "%"))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberView> likeIgnoreCase(SeededDatabase db) {
+        return db.read(() -> views(db)
+                .where(member.username.containsIgnoreCase(fragment))
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberView> trigramIndex(SeededDatabase db, Index index) {
+        return index.memberReadRepository.searchByUsername(fragment, TrigramIndex.Match.CONTAINS, LIMIT);
+    }
+
+    private static JPAQuery<MemberView> views(SeededDatabase db) {
+        return readOnly(db.queryFactory
+                .select(new QMemberView(member.id, member.username, member.age, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc())
+                .limit(LIMIT));
+    }
+}
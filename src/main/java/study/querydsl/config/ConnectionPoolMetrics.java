@@ -0,0 +1,73 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 커넥션 풀 포화 지표
+ * hikaricp.connections.active/pending/acquire 는 스프링 부트가 이미 노출하므로,
+ * 여기서는 풀 크기 대비 사용률과 대기 스레드 비율을 풀 이름 태그로 추가한다.
+ * utilization 이 1 에 붙어 있고 pending 이 0 보다 크면 지연이 튀기 전에 풀이 먼저 막히고 있다는 뜻이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConnectionPoolMetrics {
+
+    private final Map<String, DataSource> dataSources;
+    private final MeterRegistry registry;
+
+    //풀은 첫 커넥션을 얻을 때 시작되므로 기동이 끝난 뒤에 바인딩
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindPoolMetrics() {
+        Set<HikariDataSource> bound = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource dataSource : dataSources.values()) {
+            HikariDataSource hikari = unwrap(dataSource);
+            if (hikari == null || !bound.add(hikari)) {
+                continue;
+            }
+            String pool = hikari.getPoolName();
+            Gauge.builder("querydsl.pool.utilization", hikari, ConnectionPoolMetrics::utilization)
+                    .description("active connections / maximum pool size")
+                    .tag("pool", pool)
+                    .register(registry);
+            Gauge.builder("querydsl.pool.waiting.ratio", hikari, ConnectionPoolMetrics::waitingRatio)
+                    .description("threads waiting for a connection / maximum pool size")
+                    .tag("pool", pool)
+                    .register(registry);
+        }
+    }
+
+    private static double utilization(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static double waitingRatio(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0 : (double) pool.getThreadsAwaitingConnection() / hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
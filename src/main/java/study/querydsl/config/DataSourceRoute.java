@@ -0,0 +1,5 @@
+package study.querydsl.config;
+
+public enum DataSourceRoute {
+    PRIMARY, REPLICA
+}
@@ -0,0 +1,19 @@
+package study.querydsl.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.support.NormalizedQueryFactory;
+
+@Configuration
+public class QuerydslConfig {
+
+    //공유 EntityManager 프록시라 트랜잭션마다 알맞은 영속성 컨텍스트로 위임됨
+    //대소문자 무시 조건은 lower() 생성 컬럼으로 바꿔서 인덱스를 타게 한다 (NormalizedColumnSerializer)
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager em) {
+        return new NormalizedQueryFactory(em);
+    }
+
+}
@@ -0,0 +1,64 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * 레플리카 상태 확인
+ * 커넥션이 살아있지 않거나, lagQuery 로 잰 복제 지연(초)이 maxLagSeconds 를 넘으면 읽기를 primary 로 돌린다.
+ */
+@Slf4j
+public class ReplicaHealthChecker {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    private volatile boolean usable = true;
+
+    public ReplicaHealthChecker(DataSource replica, String lagQuery, long maxLagSeconds) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.routing.health-check-interval-ms:5000}")
+    public void check() {
+        boolean healthy = isAlive() && lagWithinLimit();
+        if (healthy != usable) {
+            log.warn("replica {} -> reads routed to {}", healthy ? "recovered" : "unhealthy",
+                    healthy ? DataSourceRoute.REPLICA : DataSourceRoute.PRIMARY);
+        }
+        usable = healthy;
+    }
+
+    private boolean isAlive() {
+        try (Connection connection = replica.getConnection()) {
+            return connection.isValid(1);
+        } catch (Exception e) {
+            log.debug("replica validation failed", e);
+            return false;
+        }
+    }
+
+    private boolean lagWithinLimit() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return true;
+        }
+        try {
+            Long lag = new JdbcTemplate(replica).queryForObject(lagQuery, Long.class);
+            return lag != null && lag <= maxLagSeconds;
+        } catch (Exception e) {
+            log.debug("replica lag query failed", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * querydsl.routing.enabled=true 일 때 primary/replica 두 풀을 만들고 트랜잭션 readOnly 여부로 라우팅한다.
+ * 풀 메트릭은 풀 이름(pool-name) 태그로 hikaricp.* 에 각각 노출된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "querydsl.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("querydsl.routing.primary")
+    public HikariDataSource primaryDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("querydsl.routing.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(@Qualifier("replicaDataSource") DataSource replica,
+                                                     @Value("${querydsl.routing.replica-lag-query:}") String lagQuery,
+                                                     @Value("${querydsl.routing.max-lag-seconds:5}") long maxLagSeconds,
+                                                     MeterRegistry registry) {
+        ReplicaHealthChecker checker = new ReplicaHealthChecker(replica, lagQuery, maxLagSeconds);
+        Gauge.builder("querydsl.routing.replica.usable", checker, c -> c.isUsable() ? 1 : 0)
+                .register(registry);
+        return checker;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaHealthChecker replicaHealthChecker) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, replicaHealthChecker));
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 작업 (TeamStatsReconciler, ReplicaHealthChecker)
+ * TeamStatsReconciler 는 cron 을 지정해야 돌고, ReplicaHealthChecker 는 라우팅을 켰을 때만 빈이 생긴다.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
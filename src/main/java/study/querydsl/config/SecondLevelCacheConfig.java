@@ -0,0 +1,58 @@
+package study.querydsl.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+/**
+ * 2차 캐시용 JCache CacheManager 를 직접 만들어 하이버네이트에 넘긴다.
+ * 리전 크기/TTL 은 application.conf, 캐시별 hit/miss/eviction 은 cache.* 메트릭으로 노출.
+ * query.reporting 처럼 처음 쓸 때 만들어지는 쿼리 캐시 리전도 메트릭이 붙도록
+ * application.conf 에 적힌 리전은 CacheManager 를 만들 때 미리 만들어 둔다.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String CACHE_MANAGER = "hibernate.javax.cache.cache_manager";
+    private static final String REGIONS = "caffeine.jcache";
+    private static final String DEFAULT_REGION = "default";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        //설정에 있는 이름으로 getCache 하면 그 설정으로 만들어지고, 하이버네이트는 있는 캐시를 그대로 쓴다
+        for (String region : ConfigFactory.load().getObject(REGIONS).keySet()) {
+            if (!DEFAULT_REGION.equals(region)) {
+                cacheManager.getCache(region);
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    //설정에 없는 리전은 SessionFactory 가 올라오면서 만들어지므로 기동이 끝난 뒤에 바인딩
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindCacheMetrics(ApplicationReadyEvent event) {
+        CacheManager cacheManager = hibernateCacheManager();
+        MeterRegistry registry = event.getApplicationContext().getBean(MeterRegistry.class);
+        for (String name : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(registry, cacheManager.getCache(name), Tags.empty());
+        }
+    }
+}
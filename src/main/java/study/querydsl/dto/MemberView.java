@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+
+/**
+ * 읽기 전용 회원 조회 모델 (엔티티 대신 반환)
+ */
+public record MemberView(Long id, String username, int age, String teamName) {
+
+    @QueryProjection
+    public MemberView(Long id, String username, int age, String teamName) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+}
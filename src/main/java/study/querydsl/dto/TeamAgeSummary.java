@@ -0,0 +1,19 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+
+/**
+ * 팀별 나이 집계 행 (Tuple 대신 타입이 있는 결과)
+ */
+public record TeamAgeSummary(String teamName, long memberCount, long ageSum, double averageAge, int minAge, int maxAge) {
+
+    @QueryProjection
+    public TeamAgeSummary(String teamName, long memberCount, long ageSum, double averageAge, int minAge, int maxAge) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.averageAge = averageAge;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
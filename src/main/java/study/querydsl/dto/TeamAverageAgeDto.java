@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamAverageAgeDto {
+
+    private String teamName;
+    private double averageAge;
+
+    @QueryProjection
+    public TeamAverageAgeDto(String teamName, Double averageAge) {
+        this.teamName = teamName;
+        this.averageAge = averageAge;
+    }
+}
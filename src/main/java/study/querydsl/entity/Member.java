@@ -4,19 +4,40 @@ package study.querydsl.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.Locale;
+
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id" , "username" , "age"})
+@NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners({TeamStatsListener.class, UsernameIndexListener.class})
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_username_normalized", columnList = "username_normalized"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")})
 public class Member {
 
-    @Id @GeneratedValue
+    //pooled-lo 시퀀스로 한번에 100개씩 id를 받아와서 insert 를 JDBC 배치로 묶을 수 있게 함
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    //lower(username) 생성 컬럼, 대소문자 무시 조건은 NormalizedColumnSerializer 가 이 컬럼으로 바꾼다
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_normalized", insertable = false, updatable = false)
+    private String usernameNormalized;
+
+    //동시 수정은 락 대신 버전 비교로 감지한다 (MemberUpdateService 가 재시도)
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -30,14 +51,22 @@ public class Member {
     }
 
     public Member(String username, int age, Team team){
-        this.username = username;
+        setUsername(username);
         this.age = age;
         if(team != null){
             changeTeam(team);
         }
     }
 
-    private void changeTeam(Team team) {
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameNormalized = username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
+    public void changeTeam(Team team) {
+        if (this.team != null) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add (this);
     }
@@ -0,0 +1,90 @@
+package study.querydsl.entity;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 한 트랜잭션 동안 모인 TeamStats 변경분
+ * 커밋 flush 가 끝난 뒤(트랜잭션 완료 직전) 팀마다 한 번씩만 반영한다.
+ */
+class TeamStatsChanges implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+    private final SessionImplementor session;
+    private final Set<Long> created = new LinkedHashSet<>();
+    private final Map<Long, Delta> deltas = new HashMap<>();
+    private final Set<Long> recompute = new LinkedHashSet<>();
+
+    private TeamStatsChanges(SessionImplementor session) {
+        this.session = session;
+    }
+
+    static TeamStatsChanges of(SessionImplementor session) {
+        TeamStatsChanges changes = (TeamStatsChanges) TransactionSynchronizationManager.getResource(session);
+        if (changes == null) {
+            changes = new TeamStatsChanges(session);
+            TransactionSynchronizationManager.bindResource(session, changes);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+        }
+        return changes;
+    }
+
+    void teamCreated(Long teamId) {
+        created.add(teamId);
+    }
+
+    void memberAdded(Long teamId, int age) {
+        deltas.computeIfAbsent(teamId, id -> new Delta()).add(age);
+    }
+
+    void teamChanged(Long teamId) {
+        recompute.add(teamId);
+    }
+
+    void teamRemoved(Long teamId) {
+        created.remove(teamId);
+        deltas.remove(teamId);
+        recompute.remove(teamId);
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+        for (Long teamId : created) {
+            TeamStatsStatements.insertEmpty(session, teamId);
+        }
+        for (Map.Entry<Long, Delta> entry : deltas.entrySet()) {
+            if (!recompute.contains(entry.getKey())) {
+                Delta d = entry.getValue();
+                TeamStatsStatements.applyDelta(session, entry.getKey(), d.count, d.ageSum, d.minAge, d.maxAge);
+            }
+        }
+        TeamStatsStatements.recompute(session, recompute);
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this.session);
+    }
+
+    private static class Delta {
+        long count;
+        long ageSum;
+        int minAge = Integer.MAX_VALUE;
+        int maxAge = Integer.MIN_VALUE;
+
+        void add(int age) {
+            count++;
+            ageSum += age;
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Member/Team 변경을 TeamStatsChanges 에 모은다.
+ * 회원 추가는 증분(count/sum/min/max)으로, 삭제/팀 이동/나이 변경은 영향 받은 팀만 다시 계산한다.
+ * 팀 삭제는 team_stats 의 FK(on delete cascade)가 처리한다.
+ * 스프링 트랜잭션 밖에서 일어난 변경은 반영하지 않는다. (TeamStatsReconciler 로 맞춘다)
+ *
+ * SpringBeanContainer 가 만드는 리스너라서 EntityManagerFactory 생성 중에 주입되므로 EntityManager 는 지연 조회한다.
+ */
+public class TeamStatsListener {
+
+    private final ObjectProvider<EntityManager> em;
+
+    public TeamStatsListener(ObjectProvider<EntityManager> em) {
+        this.em = em;
+    }
+
+    @PostPersist
+    public void postPersist(Object entity) {
+        if (entity instanceof Team team) {
+            changes().ifPresent(c -> c.teamCreated(team.getId()));
+        } else if (entity instanceof Member member && member.getTeam() != null) {
+            changes().ifPresent(c -> c.memberAdded(member.getTeam().getId(), member.getAge()));
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (!(entity instanceof Member member)) {
+            return;
+        }
+        SessionImplementor session = session();
+        if (session == null) {
+            return;
+        }
+        Object[] loadedState = loadedState(session, member);
+        if (loadedState == null) {
+            return;
+        }
+        EntityMetamodel metamodel = session.getEntityPersister(null, member).getEntityMetamodel();
+        Long oldTeamId = teamId((Team) loadedState[metamodel.getPropertyIndex("team")]);
+        int oldAge = (Integer) loadedState[metamodel.getPropertyIndex("age")];
+        Long newTeamId = teamId(member.getTeam());
+
+        if (!Objects.equals(oldTeamId, newTeamId) || oldAge != member.getAge()) {
+            TeamStatsChanges changes = TeamStatsChanges.of(session);
+            if (oldTeamId != null) {
+                changes.teamChanged(oldTeamId);
+            }
+            if (newTeamId != null) {
+                changes.teamChanged(newTeamId);
+            }
+        }
+    }
+
+    /**
+     * flush 전에 팀을 옮기고 바로 삭제한 경우도 있으므로 현재 팀과 로딩 시점 팀을 모두 다시 계산한다.
+     */
+    @PreRemove
+    public void preRemove(Object entity) {
+        if (entity instanceof Team team) {
+            //통계 행은 FK(on delete cascade)로 같이 지워지므로 같은 트랜잭션에 쌓인 반영만 버린다
+            changes().ifPresent(c -> c.teamRemoved(team.getId()));
+            return;
+        }
+        if (!(entity instanceof Member member)) {
+            return;
+        }
+        SessionImplementor session = session();
+        if (session == null) {
+            return;
+        }
+        TeamStatsChanges changes = TeamStatsChanges.of(session);
+        if (member.getTeam() != null) {
+            changes.teamChanged(member.getTeam().getId());
+        }
+        Object[] loadedState = loadedState(session, member);
+        if (loadedState != null) {
+            EntityMetamodel metamodel = session.getEntityPersister(null, member).getEntityMetamodel();
+            Long loadedTeamId = teamId((Team) loadedState[metamodel.getPropertyIndex("team")]);
+            if (loadedTeamId != null) {
+                changes.teamChanged(loadedTeamId);
+            }
+        }
+    }
+
+    private Optional<TeamStatsChanges> changes() {
+        SessionImplementor session = session();
+        return session == null ? Optional.empty() : Optional.of(TeamStatsChanges.of(session));
+    }
+
+    private SessionImplementor session() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return em.getObject().unwrap(SessionImplementor.class);
+    }
+
+    private static Object[] loadedState(SessionImplementor session, Member member) {
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(member);
+        return entry == null ? null : entry.getLoadedState();
+    }
+
+    private static Long teamId(Team team) {
+        return team == null ? null : team.getId();
+    }
+}
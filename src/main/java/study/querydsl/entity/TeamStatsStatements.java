@@ -0,0 +1,103 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * TeamStats 를 갱신하는 HQL 모음
+ * 리스너(트랜잭션 완료 직전)와 벌크 경로, 재구성 작업이 같은 쿼리를 쓴다.
+ */
+public abstract class TeamStatsStatements {
+
+    private static final String INSERT_EMPTY =
+            "insert into TeamStats (teamId, memberCount, ageSum) values (:teamId, 0, 0)";
+
+    //회원 추가만 있는 경우: count/sum 은 더하고 min/max 는 새 값과 비교
+    private static final String APPLY_DELTA = """
+            update TeamStats s
+            set s.memberCount = s.memberCount + :count,
+                s.ageSum = s.ageSum + :ageSum,
+                s.minAge = case when s.minAge is null or s.minAge > :minAge then :minAge else s.minAge end,
+                s.maxAge = case when s.maxAge is null or s.maxAge < :maxAge then :maxAge else s.maxAge end
+            where s.teamId = :teamId""";
+
+    //집계 전에 통계 행을 잠가서 같은 팀을 동시에 다시 계산하는 트랜잭션을 줄 세운다 (교착 방지를 위해 teamId 순)
+    private static final String LOCK = "from TeamStats s where s.teamId in :teamIds order by s.teamId";
+
+    private static final String LOCK_ALL = "from TeamStats s order by s.teamId";
+
+    //행을 지우고 다시 넣지 않고 제자리에서 갱신한다 (delete + insert 는 동시에 돌면 PK 중복/집계 유실)
+    private static final String RECOMPUTE = """
+            update TeamStats s
+            set s.memberCount = (select count(m) from Member m where m.team.id = s.teamId),
+                s.ageSum = (select coalesce(sum(m.age), 0) from Member m where m.team.id = s.teamId),
+                s.minAge = (select min(m.age) from Member m where m.team.id = s.teamId),
+                s.maxAge = (select max(m.age) from Member m where m.team.id = s.teamId)
+            """;
+
+    //통계 행이 아직 없는 팀만 (JDBC 로 직접 넣은 팀 등), 회원이 없는 팀도 0 으로 남도록 team 기준 left join
+    private static final String INSERT_MISSING = """
+            insert into TeamStats (teamId, memberCount, ageSum, minAge, maxAge)
+            select t.id, count(m), coalesce(sum(m.age), 0), min(m.age), max(m.age)
+            from Team t left join t.members m
+            where not exists (select 1 from TeamStats s where s.teamId = t.id)
+            """;
+
+    public static void insertEmpty(Session session, Long teamId) {
+        session.createMutationQuery(INSERT_EMPTY)
+                .setParameter("teamId", teamId)
+                .executeUpdate();
+    }
+
+    /**
+     * 행이 없으면(직접 insert 된 팀 등) 해당 팀만 다시 계산한다.
+     */
+    public static void applyDelta(Session session, Long teamId, long count, long ageSum, int minAge, int maxAge) {
+        int updated = session.createMutationQuery(APPLY_DELTA)
+                .setParameter("count", count)
+                .setParameter("ageSum", ageSum)
+                .setParameter("minAge", minAge)
+                .setParameter("maxAge", maxAge)
+                .setParameter("teamId", teamId)
+                .executeUpdate();
+        if (updated == 0) {
+            recompute(session, List.of(teamId));
+        }
+    }
+
+    /**
+     * 해당 팀들만 다시 계산, 삭제/팀 이동/나이 변경처럼 min/max 를 증분으로 알 수 없을 때 쓴다.
+     * 행 잠금을 먼저 잡으므로 집계는 앞서 커밋된 트랜잭션의 변경까지 본다. (READ COMMITTED)
+     * 행이 없는 팀을 동시에 처음 넣으면 PK 중복(23505)이 날 수 있고, 호출하는 쪽(OptimisticRetry)이 재시도한다.
+     * (merge 로 바꿔도 아직 커밋 안 된 같은 키 insert 와 겹치면 똑같이 중복 키가 나므로 재시도는 필요하다)
+     */
+    public static void recompute(Session session, Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        lock(session, session.createSelectionQuery(LOCK, TeamStats.class).setParameter("teamIds", teamIds));
+        session.createMutationQuery(RECOMPUTE + "where s.teamId in :teamIds")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+        session.createMutationQuery(INSERT_MISSING + "and t.id in :teamIds group by t.id")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+    }
+
+    public static int rebuild(Session session) {
+        lock(session, session.createSelectionQuery(LOCK_ALL, TeamStats.class));
+        int updated = session.createMutationQuery(RECOMPUTE).executeUpdate();
+        return updated + session.createMutationQuery(INSERT_MISSING + "group by t.id").executeUpdate();
+    }
+
+    //잠금만 필요하므로 읽어온 엔티티는 바로 영속성 컨텍스트에서 뺀다 (뒤의 벌크 update 로 어차피 낡는다)
+    private static void lock(Session session, SelectionQuery<TeamStats> query) {
+        for (TeamStats stats : query.setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList()) {
+            session.detach(stats);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PreUpdate;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.support.UsernameIndex;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 저장/삭제된 Member id 를 모아서 커밋이 성공한 뒤에만 UsernameIndex.refresh 로 다시 읽어 반영한다.
+ * 트랜잭션 안에서 본 값이 아니라 커밋 후 DB 값을 넣으므로, 여러 트랜잭션이 같은 회원을 바꿔도
+ * 완료 콜백 순서와 상관없이 마지막에 커밋된 값이 남는다.
+ * 수정은 username 이 바뀐 경우만 모은다. (나이/팀만 바뀐 update 로 다시 읽지 않는다)
+ * 롤백된 변경은 색인에 남지 않는다. 스프링 트랜잭션 밖에서 일어난 변경은 반영하지 않는다.
+ *
+ * TeamStatsListener 와 같은 이유로 EntityManager 와 색인은 지연 조회한다.
+ */
+public class UsernameIndexListener {
+
+    private final ObjectProvider<EntityManager> em;
+    private final ObjectProvider<UsernameIndex> usernameIndex;
+
+    public UsernameIndexListener(ObjectProvider<EntityManager> em, ObjectProvider<UsernameIndex> usernameIndex) {
+        this.em = em;
+        this.usernameIndex = usernameIndex;
+    }
+
+    @PostPersist
+    @PostRemove
+    public void changed(Member member) {
+        SessionImplementor session = session();
+        if (session != null) {
+            record(session, member.getId());
+        }
+    }
+
+    //flush 직전 dirty check 뒤에 불리므로 로딩 시점 값과 비교할 수 있다 (커밋이 실패하면 refresh 도 안 한다)
+    @PreUpdate
+    public void updating(Member member) {
+        SessionImplementor session = session();
+        if (session == null) {
+            return;
+        }
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(member);
+        Object[] loadedState = entry == null ? null : entry.getLoadedState();
+        if (loadedState != null) {
+            int index = session.getEntityPersister(null, member).getEntityMetamodel().getPropertyIndex("username");
+            if (Objects.equals(loadedState[index], member.getUsername())) {
+                return;
+            }
+        }
+        record(session, member.getId());
+    }
+
+    private SessionImplementor session() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return em.getObject().unwrap(SessionImplementor.class);
+    }
+
+    private void record(SessionImplementor session, Long id) {
+        Key key = new Key(session);
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(key);
+        if (changes == null) {
+            changes = new Changes(key, usernameIndex.getObject());
+            TransactionSynchronizationManager.bindResource(key, changes);
+            session.getActionQueue().registerProcess(changes);
+        }
+        changes.ids.add(id);
+    }
+
+    //TeamStatsChanges 가 세션을 키로 쓰므로 따로 감싼다
+    private record Key(SessionImplementor session) {
+    }
+
+    private static class Changes implements AfterTransactionCompletionProcess {
+
+        private final Key key;
+        private final UsernameIndex usernameIndex;
+        private final Set<Long> ids = new HashSet<>();
+
+        Changes(Key key, UsernameIndex usernameIndex) {
+            this.key = key;
+            this.usernameIndex = usernameIndex;
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            if (success) {
+                usernameIndex.refresh(ids);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+
+/**
+ * 쿼리에 연관관계 로딩 전략을 덧입힌다. (fetch join, entity graph 힌트 등)
+ */
+@FunctionalInterface
+public interface FetchPlan {
+
+    void apply(JPAQuery<?> query, EntityManager em);
+
+}
@@ -0,0 +1,49 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 이름으로 고르는 fetch plan 목록
+ * 조인 기반 플랜은 기본 별칭(QMember.member, QTeam.team)을 루트로 쓰는 쿼리에만 붙일 수 있다.
+ * 나머지 지연 로딩은 default_batch_fetch_size / @BatchSize 가 IN 절로 묶어준다.
+ */
+@Component
+public class FetchPlans {
+
+    public static final String MEMBER_WITH_TEAM = "member-with-team";
+    public static final String MEMBER_WITH_TEAM_GRAPH = "member-with-team-graph";
+    public static final String TEAM_WITH_MEMBERS = "team-with-members";
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private final EntityManager em;
+    private final Map<String, FetchPlan> plans = Map.of(
+            MEMBER_WITH_TEAM, (query, em) -> query.join(member.team, team).fetchJoin(),
+            MEMBER_WITH_TEAM_GRAPH, entityGraph("Member.team"),
+            TEAM_WITH_MEMBERS, (query, em) -> query.leftJoin(team.members, member).fetchJoin().distinct()
+    );
+
+    public FetchPlans(EntityManager em) {
+        this.em = em;
+    }
+
+    public <T> JPAQuery<T> apply(String name, JPAQuery<T> query) {
+        FetchPlan plan = plans.get(name);
+        if (plan == null) {
+            throw new IllegalArgumentException("unknown fetch plan: " + name);
+        }
+        plan.apply(query, em);
+        return query;
+    }
+
+    private static FetchPlan entityGraph(String graphName) {
+        return (query, em) -> query.setHint(FETCH_GRAPH, em.getEntityGraph(graphName));
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * 다음 페이지를 위한 continuation token 을 함께 들고 다니는 Slice
+ * total 은 요청한 경우에만 채워지며, 캐시된 값일 수 있다.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private final String nextToken;
+    private final Long total;
+
+    public KeysetSlice(List<T> content, Pageable pageable, String nextToken, Long total) {
+        super(content, pageable, nextToken != null);
+        this.nextToken = nextToken;
+        this.total = total;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public OptionalLong getTotal() {
+        return total == null ? OptionalLong.empty() : OptionalLong.of(total);
+    }
+}
@@ -0,0 +1,292 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.support.QueryMetrics;
+import study.querydsl.support.QueryTemplate;
+import study.querydsl.support.QueryTemplateCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+@Transactional(readOnly = true)
+public class MemberQueryRepository {
+
+    private static final int USERNAME = 1;
+    private static final int AGE = 1 << 1;
+
+    //searchPage 에서 정렬할 수 있는 프로퍼티 (MemberTeamDto 필드명 -> 경로)
+    private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "memberId", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamName", team.name);
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<Integer> AGE_PARAM = new Param<>(Integer.class, "age");
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final QueryMetrics queryMetrics;
+    private final long countCacheTtlNanos;
+
+    private final QueryTemplateCache<Integer> searchTemplates = new QueryTemplateCache<>(16);
+    private final Function<Integer, QueryTemplate<MemberDto>> searchTemplateFactory = this::buildSearchTemplate;
+
+    private volatile long cachedCount = -1;
+    private volatile long cachedCountAt;
+
+    public MemberQueryRepository(EntityManager em, JPAQueryFactory queryFactory, QueryMetrics queryMetrics,
+                                 @Value("${querydsl.paging.count-cache-ttl:10s}") Duration countCacheTtl) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.queryMetrics = queryMetrics;
+        this.countCacheTtlNanos = countCacheTtl.toNanos();
+    }
+
+    /**
+     * 동적 검색 (searchMember1/2 와 같은 조건)
+     * 조건 조합별로 한 번만 JPQL 을 만들고 이후에는 파라미터만 바인딩한다.
+     */
+    public List<MemberDto> search(String usernameCond, Integer ageCond) {
+        int shape = (usernameCond != null ? USERNAME : 0) | (ageCond != null ? AGE : 0);
+        QueryTemplate<MemberDto> template = searchTemplates.get(shape, searchTemplateFactory);
+
+        Map<ParamExpression<?>, Object> params = new HashMap<>(4);
+        if (usernameCond != null) {
+            params.put(USERNAME_PARAM, usernameCond);
+        }
+        if (ageCond != null) {
+            params.put(AGE_PARAM, ageCond);
+        }
+        return queryMetrics.record("member.search", () -> template.fetch(em, params), List::size, template::getJpql);
+    }
+
+    private QueryTemplate<MemberDto> buildSearchTemplate(int shape) {
+        return QueryTemplate.of(em, queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where((shape & USERNAME) != 0 ? member.username.eq(USERNAME_PARAM) : null,
+                        (shape & AGE) != 0 ? member.age.eq(AGE_PARAM) : null));
+    }
+
+    /**
+     * /api/members 검색
+     * 엔티티를 올리지 않고 MemberTeamDto 로 바로 받는다.
+     * 첫 페이지에서 content 가 page size 보다 적거나 마지막 페이지면 count 쿼리를 생략한다. (PageableExecutionUtils)
+     * count 는 팀명 조건이 있을 때만 team 을 조인한다.
+     * 정렬은 memberId, username, age, teamName 만 받는다. (기본 memberId 오름차순)
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = searchContent(condition, pageable);
+        return PageableExecutionUtils.getPage(content, pageable, () -> searchCount(condition));
+    }
+
+    public List<MemberTeamDto> searchContent(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member);
+        //팀명 조건이 있으면 inner join 으로 team 부터 읽을 수 있게 한다 (left join 이면 member 를 먼저 다 읽는다)
+        if (hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        return queryMetrics.fetch("member.searchPage", query
+                .where(searchCondition(condition))
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()));
+    }
+
+    public long searchCount(MemberSearchCondition condition) {
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member);
+        if (hasText(condition.getTeamName())) {
+            countQuery.join(member.team, team);
+        }
+        countQuery.where(searchCondition(condition));
+        return queryMetrics.fetchOne("member.searchPage.count", countQuery);
+    }
+
+    /**
+     * Pageable 의 sort 를 허용된 경로로만 바꾼다. 모르는 프로퍼티는 IllegalArgumentException
+     * 같은 값이 여러 행이면 페이지 사이에 행이 겹치거나 빠지지 않도록 id 를 마지막에 붙인다.
+     */
+    private static OrderSpecifier<?>[] orderBy(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean hasId = false;
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = SORTABLE.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("unsupported sort property: " + order.getProperty());
+            }
+            OrderSpecifier<?> specifier = order.isAscending() ? path.asc() : path.desc();
+            orders.add(switch (order.getNullHandling()) {
+                case NULLS_FIRST -> specifier.nullsFirst();
+                case NULLS_LAST -> specifier.nullsLast();
+                case NATIVE -> specifier;
+            });
+            hasId |= path == member.id;
+        }
+        if (!hasId) {
+            orders.add(member.id.asc());
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    private BooleanExpression[] searchCondition(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())};
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    /**
+     * 키셋(seek) 페이징
+     * offset 대신 마지막 행의 (age, member_id) 이후부터 읽기 때문에 몇 번째 페이지든 비용이 같다.
+     * size + 1 건을 읽어서 다음 페이지 존재 여부를 판단하고, count 는 withCount 일 때만 캐시된 값을 쓴다.
+     */
+    public KeysetSlice<MemberDto> findSlice(String continuationToken, int size, boolean withCount) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1: " + size);
+        }
+        MemberCursor cursor = continuationToken == null ? null : MemberCursor.decode(continuationToken);
+
+        List<Tuple> rows = queryMetrics.fetch("member.slice", queryFactory
+                .select(member.id, member.username, member.age)
+                .from(member)
+                .where(after(cursor))
+                .orderBy(member.age.asc(), member.id.asc())
+                .limit(size + 1));
+
+        int contentSize = Math.min(rows.size(), size);
+        List<MemberDto> content = new ArrayList<>(contentSize);
+        for (int i = 0; i < contentSize; i++) {
+            Tuple row = rows.get(i);
+            content.add(new MemberDto(row.get(member.username), row.get(member.age)));
+        }
+
+        String nextToken = null;
+        if (rows.size() > size) {
+            Tuple last = rows.get(size - 1);
+            nextToken = new MemberCursor(last.get(member.age), last.get(member.id)).encode();
+        }
+
+        Long total = withCount ? countCached() : null;
+        return new KeysetSlice<>(content, PageRequest.of(0, size), nextToken, total);
+    }
+
+    /**
+     * 전체 회원 수, ttl 동안은 마지막으로 센 값을 그대로 돌려준다.
+     */
+    public long countCached() {
+        long now = System.nanoTime();
+        if (cachedCount < 0 || now - cachedCountAt > countCacheTtlNanos) {
+            cachedCount = queryMetrics.fetchOne("member.count", queryFactory
+                    .select(member.count())
+                    .from(member));
+            cachedCountAt = now;
+        }
+        return cachedCount;
+    }
+
+    /**
+     * 전체 회원 스트리밍 (export 용)
+     * fetch() 처럼 List 를 만들지 않고 forward-only 커서로 fetchSize 만큼씩 읽어서 consumer 에 넘긴다.
+     * DTO 로 바로 받기 때문에 엔티티가 영속성 컨텍스트에 쌓이지 않지만,
+     * 호출 중에 다른 로딩이 섞여도 메모리가 늘지 않도록 clearEvery 건마다 비운다.
+     * 비우는 건 이 메서드가 트랜잭션을 직접 열었을 때만이다. 호출한 쪽 트랜잭션에 참여하면
+     * 그쪽의 flush 안 된 변경을 버리게 되므로 비우지 않는다. clearEvery 가 0 이하면 비우지 않는다.
+     */
+    public long streamAll(int fetchSize, int clearEvery, Consumer<MemberDto> consumer) {
+        JPAQuery<MemberDto> query = queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        return queryMetrics.record("member.stream", () -> stream(query, clearEvery, consumer),
+                Long::longValue, query::toString);
+    }
+
+    private long stream(JPAQuery<MemberDto> query, int clearEvery, Consumer<MemberDto> consumer) {
+        boolean clear = clearEvery > 0 && TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        long count = 0;
+        try (Stream<MemberDto> stream = query.stream()) {
+            for (MemberDto dto : (Iterable<MemberDto>) stream::iterator) {
+                consumer.accept(dto);
+                count++;
+                if (clear && count % clearEvery == 0) {
+                    em.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    private BooleanExpression after(MemberCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        //age > :age or (age = :age and id > :id) 와 같지만, OR 로만 묶으면 age 인덱스 범위 검색을 못 탄다
+        return member.age.goe(cursor.age())
+                .and(member.age.gt(cursor.age()).or(member.id.gt(cursor.id())));
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberView;
+import study.querydsl.dto.QMemberView;
+import study.querydsl.support.QueryMetrics;
+import study.querydsl.support.TrigramIndex;
+import study.querydsl.support.UsernameIndex;
+
+import java.util.Collection;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.support.JpaQueryHints.readOnly;
+
+/**
+ * 조회 API 용 읽기 모델
+ * 항상 MemberView 로 프로젝션하고 엔티티를 반환하지 않는다. 영속성 컨텍스트에 스냅샷이 쌓이지 않고 flush 때 dirty checking 할 것도 없다.
+ * readOnly 트랜잭션이면 하이버네이트 세션이 이미 read-only/FlushMode.MANUAL 이지만,
+ * 쓰기 트랜잭션 안에서 호출돼도 같게 동작하도록 쿼리마다 힌트를 붙인다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberReadRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryMetrics queryMetrics;
+    private final UsernameIndex usernameIndex;
+
+    public MemberView findById(Long id) {
+        return queryMetrics.fetchOne("member.read.byId", views()
+                .leftJoin(member.team, team)
+                .where(member.id.eq(id)));
+    }
+
+    public List<MemberView> findByTeamName(String teamName, Pageable pageable) {
+        return queryMetrics.fetch("member.read.byTeam", views()
+                .join(member.team, team)
+                .where(team.name.eq(teamName))
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()));
+    }
+
+    public List<MemberView> findByUsernames(Collection<String> usernames) {
+        return queryMetrics.fetch("member.read.byUsernames", views()
+                .leftJoin(member.team, team)
+                .where(member.username.in(usernames))
+                .orderBy(member.id.asc()));
+    }
+
+    /**
+     * username 검색 (대소문자 무시)
+     * UsernameIndex 로 id 를 먼저 찾고 member.id.in 으로 가져온다. 색인이 아직 없으면 like 로 찾는다.
+     */
+    public List<MemberView> searchByUsername(String query, TrigramIndex.Match match, int limit) {
+        if (query == null || match == null) {
+            throw new IllegalArgumentException("query and match must not be null");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1: " + limit);
+        }
+        if (!usernameIndex.isReady()) {
+            return queryMetrics.fetch("member.read.byUsernameLike", views()
+                    .leftJoin(member.team, team)
+                    .where(usernameLike(query, match))
+                    .orderBy(member.id.asc())
+                    .limit(limit));
+        }
+        List<Long> ids = usernameIndex.find(query, match, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return queryMetrics.fetch("member.read.byUsernameIndex", views()
+                .leftJoin(member.team, team)
+                .where(member.id.in(ids))
+                .orderBy(member.id.asc()));
+    }
+
+    private static BooleanExpression usernameLike(String query, TrigramIndex.Match match) {
+        return switch (match) {
+            case EXACT -> member.username.equalsIgnoreCase(query);
+            case PREFIX -> member.username.startsWithIgnoreCase(query);
+            case CONTAINS -> member.username.containsIgnoreCase(query);
+        };
+    }
+
+    private JPAQuery<MemberView> views() {
+        return readOnly(queryFactory
+                .select(new QMemberView(member.id, member.username, member.age, team.name))
+                .from(member));
+    }
+}
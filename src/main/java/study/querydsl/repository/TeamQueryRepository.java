@@ -0,0 +1,103 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberTemplate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.QTeamAgeSummary;
+import study.querydsl.dto.QTeamAverageAgeDto;
+import study.querydsl.dto.QTeamStatsDto;
+import study.querydsl.dto.TeamAgeSummary;
+import study.querydsl.dto.TeamAverageAgeDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.support.ColumnarResult;
+import study.querydsl.support.QueryMetrics;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+import static study.querydsl.support.JpaQueryHints.cacheable;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TeamQueryRepository {
+
+    public static final String REPORTING_REGION = "query.reporting";
+
+    //sum(int) 는 하이버네이트가 Long 으로 돌려주므로 타입을 맞춰서 생성자 프로젝션에 넘긴다
+    private static final NumberTemplate<Long> AGE_SUM = Expressions.numberTemplate(Long.class, "sum({0})", member.age);
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryMetrics queryMetrics;
+
+    /**
+     * 팀별 평균 나이, 쿼리 캐시에 올려두고 member/team 이 바뀔 때만 다시 계산한다.
+     */
+    public List<TeamAverageAgeDto> averageAgeByTeam() {
+        return queryMetrics.fetch("team.averageAge", cacheable(queryFactory
+                .select(new QTeamAverageAgeDto(team.name, member.age.avg()))
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc()), REPORTING_REGION));
+    }
+
+    /**
+     * 팀별 회원 수/평균/최소/최대 나이, member 를 읽지 않고 팀 수만큼의 집계 행만 읽는다.
+     */
+    public List<TeamStatsDto> teamStats() {
+        return queryMetrics.fetch("team.stats", queryFactory
+                .select(new QTeamStatsDto(
+                        team.name,
+                        teamStats.memberCount,
+                        teamStats.ageSum,
+                        teamStats.minAge,
+                        teamStats.maxAge))
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .orderBy(team.name.asc()));
+    }
+
+    /**
+     * 팀별 count/sum/avg/min/max 를 레코드로 받는다. (group() 의 List<Tuple> 대신)
+     */
+    public List<TeamAgeSummary> ageSummaryByTeam() {
+        return queryMetrics.fetch("team.ageSummary", queryFactory
+                .select(new QTeamAgeSummary(
+                        team.name,
+                        member.count(),
+                        AGE_SUM,
+                        member.age.avg(),
+                        member.age.min(),
+                        member.age.max()))
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .orderBy(team.name.asc()));
+    }
+
+    /**
+     * 같은 집계를 열 단위 primitive 배열로 받는다. 팀이 많은 리포트용
+     * 열: team(key), count/ageSum(long), avgAge(double), minAge/maxAge(int)
+     */
+    public ColumnarResult ageSummaryColumnsByTeam() {
+        return queryMetrics.record("team.ageSummary.columnar", () -> ColumnarResult.columns()
+                        .key("team", team.name)
+                        .longColumn("count", member.count())
+                        .longColumn("ageSum", AGE_SUM)
+                        .doubleColumn("avgAge", member.age.avg())
+                        .intColumn("minAge", member.age.min())
+                        .intColumn("maxAge", member.age.max())
+                        .fetch(queryFactory
+                                .from(member)
+                                .join(member.team, team)
+                                .groupBy(team.name)
+                                .orderBy(team.name.asc())),
+                ColumnarResult::size, () -> "team age summary (columnar)");
+    }
+}
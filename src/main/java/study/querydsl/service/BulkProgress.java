@@ -0,0 +1,14 @@
+package study.querydsl.service;
+
+import java.time.Duration;
+
+/**
+ * 청크 하나를 끝낸 시점의 진행 상황
+ */
+public record BulkProgress(int chunk, long fromId, long toId, long chunkRows, long totalRows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(elapsed.toNanos(), 1);
+        return totalRows * 1_000_000_000.0 / nanos;
+    }
+}
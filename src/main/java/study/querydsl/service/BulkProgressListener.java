@@ -0,0 +1,11 @@
+package study.querydsl.service;
+
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    BulkProgressListener NONE = progress -> {
+    };
+
+    void onChunk(BulkProgress progress);
+
+}
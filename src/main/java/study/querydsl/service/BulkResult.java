@@ -0,0 +1,11 @@
+package study.querydsl.service;
+
+import java.time.Duration;
+
+public record BulkResult(long rows, int chunks, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(elapsed.toNanos(), 1);
+        return rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,179 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.TeamStatsStatements;
+import study.querydsl.support.UsernameIndex;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 벌크 update/delete 를 id 오름차순 청크(id > 직전 청크의 마지막 id, chunk-size 건) 단위로 나눠서
+ * 청크마다 별도 트랜잭션으로 커밋한다.
+ * 한 번에 전체 테이블을 잠그지 않고, 청크 트랜잭션 timeout 으로 락 대기 시간도 제한한다.
+ * 청크가 커밋될 때마다 그 청크의 Member 만 1차/2차 캐시에서 내려서 em.flush(); em.clear(); 를 따로 할 필요가 없다.
+ * 벌크 쿼리는 엔티티 리스너를 거치지 않으므로 TeamStats 는 청크 트랜잭션 안에서 영향 받은 팀만 다시 집계하고,
+ * username 색인은 청크마다 영향 받은 회원만 다시 읽는다.
+ *
+ * 조건(Predicate)은 QMember.member 별칭 기준으로 작성해야 하고,
+ * 호출하는 트랜잭션이 대상 행을 이미 잠그고 있으면 청크 트랜잭션이 그 락을 기다리게 된다.
+ * 호출한 쪽 영속성 컨텍스트의 대상 Member 는 detach 되므로 그 엔티티에 해둔 flush 전 변경은 반영되지 않는다.
+ * 필요하면 호출 전에 flush 해야 한다.
+ */
+@Slf4j
+@Service
+public class MemberBulkExecutor {
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final JPAQueryFactory queryFactory;
+    private final UsernameIndex usernameIndex;
+    private final TransactionTemplate chunkTx;
+    private final int chunkSize;
+
+    public MemberBulkExecutor(EntityManager em, EntityManagerFactory emf, JPAQueryFactory queryFactory,
+                              UsernameIndex usernameIndex, PlatformTransactionManager transactionManager,
+                              @Value("${querydsl.bulk.chunk-size:1000}") int chunkSize,
+                              @Value("${querydsl.bulk.chunk-timeout:5s}") Duration chunkTimeout) {
+        //0 이하로는 청크를 나눌 수 없다 (limit 이 무시되거나 빈 청크만 읽게 됨)
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("querydsl.bulk.chunk-size must be positive: " + chunkSize);
+        }
+        this.em = em;
+        this.emf = emf;
+        this.queryFactory = queryFactory;
+        this.usernameIndex = usernameIndex;
+        this.chunkSize = chunkSize;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkTx.setTimeout((int) Math.max(chunkTimeout.toSeconds(), 1));
+    }
+
+    public BulkResult update(Predicate where, Consumer<JPAUpdateClause> assignments, BulkProgressListener listener) {
+        return execute(where, listener, ids -> {
+            JPAUpdateClause clause = queryFactory.update(member)
+                    .where(member.id.in(ids), where);
+            assignments.accept(clause);
+            //벌크 update 는 @Version 을 올리지 않으므로 직접 올려서 동시에 엔티티로 수정 중인 쪽이 충돌을 감지하게 한다
+            clause.set(member.version, member.version.add(1));
+            return clause.execute();
+        });
+    }
+
+    public BulkResult delete(Predicate where, BulkProgressListener listener) {
+        return execute(where, listener, ids -> queryFactory
+                .delete(member)
+                .where(member.id.in(ids), where)
+                .execute());
+    }
+
+    private BulkResult execute(Predicate where, BulkProgressListener listener, ChunkStatement statement) {
+        long start = System.nanoTime();
+        long totalRows = 0;
+        int chunk = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            long after = lastId;
+            ChunkOutcome outcome = chunkTx.execute(status -> {
+                //id 구간이 아니라 키셋으로 다음 청크를 잡으므로 id 가 듬성듬성해도 빈 청크를 돌지 않는다
+                List<Long> chunkIds = queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(member.id.gt(after), where)
+                        .orderBy(member.id.asc())
+                        .limit(chunkSize)
+                        .fetch();
+                if (chunkIds.isEmpty()) {
+                    return new ChunkOutcome(chunkIds, 0);
+                }
+                //update 로 팀/나이가 바뀔 수 있으므로 실행 전후 팀을 모두 다시 집계한다
+                Set<Long> teamIds = new HashSet<>(teamIdsOf(chunkIds));
+                long rows = statement.execute(chunkIds);
+                teamIds.addAll(teamIdsOf(chunkIds));
+                TeamStatsStatements.recompute(em.unwrap(Session.class), teamIds);
+                return new ChunkOutcome(chunkIds, rows);
+            });
+            List<Long> ids = outcome.ids();
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            //청크는 이미 커밋됐으므로 청크마다 바로 캐시에서 내리고 username 을 다시 읽는다 (영향 받은 id 를 끝까지 모아두지 않음)
+            evict(ids);
+            usernameIndex.refresh(ids);
+
+            long fromId = ids.get(0);
+            lastId = ids.get(ids.size() - 1);
+            totalRows += outcome.rows();
+            chunk++;
+            BulkProgress progress = new BulkProgress(chunk, fromId, lastId, outcome.rows(), totalRows,
+                    Duration.ofNanos(System.nanoTime() - start));
+            log.debug("bulk chunk {} [{}..{}] rows={} total={} ({} rows/s)",
+                    chunk, fromId, lastId, outcome.rows(), totalRows, (long) progress.rowsPerSecond());
+            listener.onChunk(progress);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return new BulkResult(totalRows, chunk, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private List<Long> teamIdsOf(List<Long> memberIds) {
+        return queryFactory
+                .select(member.team.id)
+                .distinct()
+                .from(member)
+                .where(member.id.in(memberIds), member.team.isNotNull())
+                .fetch();
+    }
+
+    /**
+     * 2차 캐시와, 호출한 쪽 트랜잭션의 영속성 컨텍스트에서 영향 받은 Member 만 제거
+     * 호출한 쪽이 그 Member 에 해둔 아직 flush 안 된 변경도 같이 버려진다.
+     * (버전이 이미 올라갔으므로 남겨둬도 flush 시점에 OptimisticLockException 이 난다)
+     */
+    private void evict(List<Long> chunkIds) {
+        Set<Long> ids = new HashSet<>(chunkIds);
+        for (Long id : ids) {
+            emf.getCache().evict(Member.class, id);
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member m && ids.contains(m.getId())) {
+                em.detach(m);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkStatement {
+        long execute(List<Long> ids);
+    }
+
+    private record ChunkOutcome(List<Long> ids, long rows) {
+    }
+}
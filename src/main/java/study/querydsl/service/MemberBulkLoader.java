@@ -0,0 +1,139 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.TeamStatsStatements;
+import study.querydsl.support.UsernameIndex;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 대량 회원 적재
+ * load() 는 querydsl.bulk.load-batch-size 만큼 persist 한 뒤 flush 해서 insert 를 JDBC 배치로 보내고,
+ * 넣은 회원을 영속성 컨텍스트에서 내려 커지지 않게 한다.
+ * 자기 트랜잭션이면 clear, 호출한 쪽 트랜잭션에 참여했으면 그쪽 엔티티는 두고 넣은 회원만 detach 한다.
+ * insertRows() 는 영속성 컨텍스트를 아예 거치지 않는 JDBC 경로.
+ */
+@Service
+@Transactional
+public class MemberBulkLoader {
+
+    private static final String INSERT_SQL =
+            "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+
+    //Member 의 @SequenceGenerator allocationSize 와 같아야 한다 (pooled-lo: 시퀀스 값 V 가 V ~ V+99 를 뜻함)
+    private static final int ID_ALLOCATION_SIZE = 100;
+
+    private static final String TEAM_MEMBERS_ROLE = "study.querydsl.entity.Team.members";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final UsernameIndex usernameIndex;
+    private final int batchSize;
+
+    public MemberBulkLoader(EntityManager em, JdbcTemplate jdbcTemplate, UsernameIndex usernameIndex,
+                            @Value("${querydsl.bulk.load-batch-size:100}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("querydsl.bulk.load-batch-size must be positive: " + batchSize);
+        }
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.usernameIndex = usernameIndex;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Member 의 팀은 이미 저장된 팀이어야 한다.
+     * 호출하는 쪽이 생성자로 팀을 넘기면 Team.members 컬렉션에도 계속 쌓이므로, 대량 적재라면 setTeam 으로 연결하는 편이 낫다.
+     */
+    public long load(Stream<Member> members) {
+        boolean clear = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        List<Member> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        Iterator<Member> it = members.iterator();
+        while (it.hasNext()) {
+            Member member = it.next();
+            em.persist(member);
+            batch.add(member);
+            count++;
+            if (batch.size() == batchSize) {
+                release(batch, clear);
+            }
+        }
+        release(batch, clear);
+        return count;
+    }
+
+    private void release(List<Member> batch, boolean clear) {
+        em.flush();
+        if (clear) {
+            em.clear();
+        } else {
+            batch.forEach(em::detach);
+        }
+        batch.clear();
+    }
+
+    public long insertRows(Stream<MemberInsertRow> rows) {
+        long count = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long nextId = 0;
+        long idLimit = 0;
+        long firstId = -1;
+        Set<Long> teamIds = new HashSet<>();
+
+        Iterator<MemberInsertRow> it = rows.iterator();
+        while (it.hasNext()) {
+            if (nextId == idLimit) {
+                nextId = jdbcTemplate.queryForObject("select next value for member_seq", Long.class);
+                idLimit = nextId + ID_ALLOCATION_SIZE;
+                if (firstId < 0) {
+                    firstId = nextId;
+                }
+            }
+            MemberInsertRow row = it.next();
+            if (row.teamId() != null) {
+                teamIds.add(row.teamId());
+            }
+            batch.add(new Object[]{nextId++, row.username(), row.age(), row.teamId()});
+            if (batch.size() == batchSize) {
+                count += flushBatch(batch);
+            }
+        }
+        count += flushBatch(batch);
+
+        //하이버네이트를 거치지 않았으므로 Team.members 컬렉션 캐시는 직접 비운다
+        em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(TEAM_MEMBERS_ROLE);
+        //엔티티 리스너도 거치지 않았으므로 TeamStats 는 적재한 팀만 다시 집계한다
+        TeamStatsStatements.recompute(em.unwrap(Session.class), teamIds);
+        if (count > 0) {
+            usernameIndex.loadAfterCommit(firstId, nextId - 1);
+        }
+        return count;
+    }
+
+    private int flushBatch(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch,
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.BIGINT});
+        batch.clear();
+        return size;
+    }
+}
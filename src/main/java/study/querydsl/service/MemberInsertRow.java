@@ -0,0 +1,7 @@
+package study.querydsl.service;
+
+/**
+ * 영속성 컨텍스트를 거치지 않는 JDBC 적재용 행
+ */
+public record MemberInsertRow(String username, int age, Long teamId) {
+}
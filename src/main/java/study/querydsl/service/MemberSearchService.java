@@ -0,0 +1,53 @@
+package study.querydsl.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberQueryRepository;
+import study.querydsl.support.ParallelQueryExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * content 와 count 를 동시에 실행하는 검색
+ * 응답 시간이 두 쿼리의 합이 아니라 느린 쪽이 된다.
+ * 대신 count 를 생략할 수 없으므로, 결과가 한 페이지에 다 들어가는 조회가 많으면 searchPage 가 낫다.
+ * 트랜잭션 밖에서 호출해야 한다. (워커마다 자기 트랜잭션을 연다)
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberSearchService {
+
+    private final MemberQueryRepository memberQueryRepository;
+    private final ParallelQueryExecutor parallelQueryExecutor;
+
+    public Page<MemberTeamDto> searchPageParallel(MemberSearchCondition condition, Pageable pageable) {
+        CompletableFuture<List<MemberTeamDto>> content =
+                parallelQueryExecutor.submit(() -> memberQueryRepository.searchContent(condition, pageable));
+        CompletableFuture<Long> count =
+                parallelQueryExecutor.submit(() -> memberQueryRepository.searchCount(condition));
+
+        return ParallelQueryExecutor.join(content.thenCombine(count,
+                (rows, total) -> new PageImpl<>(rows, pageable, total)));
+    }
+
+    /**
+     * 팀별 회원 수 (대시보드), 팀마다 count 를 따로 동시에 실행한다.
+     */
+    public List<Long> countByTeamNames(List<String> teamNames) {
+        List<Supplier<Long>> queries = new ArrayList<>(teamNames.size());
+        for (String teamName : teamNames) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName(teamName);
+            queries.add(() -> memberQueryRepository.searchCount(condition));
+        }
+        return ParallelQueryExecutor.join(parallelQueryExecutor.submitAll(queries));
+    }
+}
@@ -0,0 +1,128 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStatsStatements;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 동시 수정
+ * 엔티티 경로: 읽고 바꾼 뒤 커밋 시 @Version 으로 충돌을 감지하고 OptimisticRetry 로 다시 시도한다.
+ * 조건부 update 경로: 엔티티를 올리지 않고 where version = :version 으로 compare-and-set 한다.
+ * 둘 다 비관적 락(select for update)을 잡지 않으므로 읽는 쪽과 다른 행 쓰기를 막지 않는다.
+ *
+ * 트랜잭션 안에서 호출하면 IllegalStateException 을 던진다.
+ * 시도마다 새 트랜잭션을 열기 때문에 바깥 트랜잭션의 커넥션을 쥔 채 커넥션을 하나 더 잡고,
+ * 바깥 트랜잭션이 잡은 락을 기다리거나 이미 읽은 옛 버전을 보게 된다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberUpdateService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final OptimisticRetry optimisticRetry;
+
+    public int addAge(Long memberId, int delta) {
+        return retry("member.addAge", () -> {
+            Member found = find(memberId);
+            found.setAge(found.getAge() + delta);
+            return found.getAge();
+        });
+    }
+
+    public void changeTeam(Long memberId, Long teamId) {
+        retry("member.changeTeam", () -> {
+            find(memberId).changeTeam(em.getReference(Team.class, teamId));
+            return null;
+        });
+    }
+
+    /**
+     * 호출자가 읽었던 버전일 때만 나이를 바꾼다. 버전이 다르면 재시도하지 않고 false
+     * 팀은 버전과 같은 행에서 함께 읽는다. compare-and-set 이 성공하면 그 사이 팀 이동(버전 증가)이 없었다는 뜻이라
+     * 읽은 팀이 곧 update 한 행의 팀이다.
+     */
+    public boolean setAgeIfVersion(Long memberId, long expectedVersion, int age) {
+        return retry("member.setAgeIfVersion", () -> {
+            Tuple current = queryFactory
+                    .select(member.version, member.team.id)
+                    .from(member)
+                    .where(member.id.eq(memberId))
+                    .fetchOne();
+            if (current == null || current.get(member.version) != expectedVersion) {
+                return false;
+            }
+            boolean updated = compareAndSetAge(memberId, expectedVersion, age);
+            if (updated) {
+                recomputeTeamStats(current.get(member.team.id));
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * 조건부 update 로 나이를 더한다. 다른 쓰기와 겹치면 최신 값을 다시 읽어서 재시도한다.
+     */
+    public int addAgeConditional(Long memberId, int delta) {
+        return retry("member.addAgeConditional", () -> {
+            Tuple current = queryFactory
+                    .select(member.age, member.version, member.team.id)
+                    .from(member)
+                    .where(member.id.eq(memberId))
+                    .fetchOne();
+            if (current == null) {
+                throw new IllegalArgumentException("no member: " + memberId);
+            }
+            int age = current.get(member.age) + delta;
+            if (!compareAndSetAge(memberId, current.get(member.version), age)) {
+                throw new OptimisticLockingFailureException("member " + memberId + " was modified concurrently");
+            }
+            recomputeTeamStats(current.get(member.team.id));
+            return age;
+        });
+    }
+
+    private <T> T retry(String name, Supplier<T> attempt) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(name + " must not be called inside a transaction");
+        }
+        return optimisticRetry.execute(name, attempt);
+    }
+
+    private boolean compareAndSetAge(Long memberId, long expectedVersion, int age) {
+        return queryFactory
+                .update(member)
+                .set(member.age, age)
+                .set(member.version, member.version.add(1))
+                .where(member.id.eq(memberId), member.version.eq(expectedVersion))
+                .execute() == 1;
+    }
+
+    //벌크 update 는 엔티티 리스너를 거치지 않으므로 TeamStats 를 직접 맞춘다
+    private void recomputeTeamStats(Long teamId) {
+        if (teamId != null) {
+            TeamStatsStatements.recompute(em.unwrap(Session.class), List.of(teamId));
+        }
+    }
+
+    private Member find(Long memberId) {
+        Member found = em.find(Member.class, memberId);
+        if (found == null) {
+            throw new IllegalArgumentException("no member: " + memberId);
+        }
+        return found;
+    }
+}
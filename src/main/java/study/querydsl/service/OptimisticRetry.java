@@ -0,0 +1,107 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 버전 충돌(낙관적 락 실패)이 나면 트랜잭션을 새로 열어 처음부터 다시 실행한다.
+ * 재시도 간격은 지수 백오프 + full jitter 로, 같은 행을 노리는 쓰기들이 같은 박자로 다시 부딪히지 않게 한다.
+ * 시도마다 새 트랜잭션(REQUIRES_NEW)이므로 작업은 멱등하게, 필요한 엔티티는 안에서 다시 읽어야 한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    //SQL 표준 unique_violation
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final TransactionTemplate attemptTx;
+    private final MeterRegistry registry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager, MeterRegistry registry,
+                           @Value("${querydsl.retry.max-attempts:10}") int maxAttempts,
+                           @Value("${querydsl.retry.initial-backoff:5ms}") Duration initialBackoff,
+                           @Value("${querydsl.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.attemptTx = new TransactionTemplate(transactionManager);
+        this.attemptTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.registry = registry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(String name, Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attemptTx.execute(status -> attempt.get());
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                registry.counter("querydsl.retry.conflicts", "name", name).increment();
+                if (i >= maxAttempts) {
+                    registry.counter("querydsl.retry.exhausted", "name", name).increment();
+                    throw e;
+                }
+                log.debug("[{}] conflict on attempt {}, retrying: {}", name, i, e.getMessage());
+                backoff(i);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(sleep));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while backing off", e);
+        }
+    }
+
+    /**
+     * 스프링이 변환한 예외(커밋 시점)와 EntityManager 가 바로 던진 JPA/하이버네이트 예외(flush 시점)를 모두 본다.
+     * 제약 조건 위반 중에는 중복 키만 포함한다. 같은 팀의 team_stats 행을 두 트랜잭션이 동시에 처음 만들면
+     * 한쪽이 중복 키로 실패하는데, 다시 시도하면 이미 생긴 행을 update 한다.
+     * FK/NOT NULL/CHECK 위반은 다시 해도 같으므로 바로 던진다.
+     */
+    static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof StaleStateException
+                    || isDuplicateKey(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //스프링이 변환하지 않은 경우(TransactionTemplate 안의 executeUpdate)는 원인 SQLException 의 SQLState 로 본다
+    private static boolean isDuplicateKey(Throwable t) {
+        return t instanceof DuplicateKeyException
+                || t instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState());
+    }
+}
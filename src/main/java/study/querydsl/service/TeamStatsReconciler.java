@@ -0,0 +1,32 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.TeamStatsStatements;
+
+/**
+ * TeamStats 전체 재구성
+ * 트랜잭션 밖 변경이나 JDBC 직접 수정으로 어긋난 집계를 맞춘다.
+ * querydsl.team-stats.reconcile-cron 을 지정하면 주기적으로 실행한다. (기본은 꺼짐)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TeamStatsReconciler {
+
+    private final EntityManager em;
+
+    @Transactional
+    @Scheduled(cron = "${querydsl.team-stats.reconcile-cron:-}")
+    public int rebuild() {
+        long start = System.nanoTime();
+        int teams = TeamStatsStatements.rebuild(em.unwrap(Session.class));
+        log.info("team stats rebuilt: {} teams in {}ms", teams, (System.nanoTime() - start) / 1_000_000);
+        return teams;
+    }
+}
@@ -0,0 +1,241 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 집계 결과를 열 단위 배열(int[]/long[]/double[])로 담는 컨테이너
+ * 행마다 Tuple 과 박싱된 숫자를 보관하지 않고, 스트리밍으로 읽으면서 바로 primitive 배열에 쓴다.
+ * 숫자 열의 null 은 int/long 은 0, double 은 NaN 으로 담긴다.
+ *
+ * ColumnarResult result = ColumnarResult.columns()
+ *         .key("team", team.name)
+ *         .longColumn("count", member.count())
+ *         .doubleColumn("avgAge", member.age.avg())
+ *         .fetch(queryFactory.from(member).join(member.team, team).groupBy(team.name));
+ */
+public final class ColumnarResult {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    enum ColumnType {KEY, INT, LONG, DOUBLE}
+
+    private final Map<String, Integer> indexes;
+    private final ColumnType[] types;
+    private final Object[][] keys;
+    private final int[][] ints;
+    private final long[][] longs;
+    private final double[][] doubles;
+    private int size;
+
+    private ColumnarResult(List<String> names, List<ColumnType> types) {
+        int columns = names.size();
+        this.indexes = new HashMap<>(columns * 2);
+        for (int i = 0; i < columns; i++) {
+            indexes.put(names.get(i), i);
+        }
+        this.types = types.toArray(ColumnType[]::new);
+        this.keys = new Object[columns][];
+        this.ints = new int[columns][];
+        this.longs = new long[columns][];
+        this.doubles = new double[columns][];
+        for (int i = 0; i < columns; i++) {
+            switch (this.types[i]) {
+                case KEY -> keys[i] = new Object[INITIAL_CAPACITY];
+                case INT -> ints[i] = new int[INITIAL_CAPACITY];
+                case LONG -> longs[i] = new long[INITIAL_CAPACITY];
+                case DOUBLE -> doubles[i] = new double[INITIAL_CAPACITY];
+            }
+        }
+    }
+
+    public static Builder columns() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getKey(String column, int row) {
+        return (T) keys[index(column, ColumnType.KEY)][checkRow(row)];
+    }
+
+    public int getInt(String column, int row) {
+        return ints[index(column, ColumnType.INT)][checkRow(row)];
+    }
+
+    public long getLong(String column, int row) {
+        return longs[index(column, ColumnType.LONG)][checkRow(row)];
+    }
+
+    public double getDouble(String column, int row) {
+        return doubles[index(column, ColumnType.DOUBLE)][checkRow(row)];
+    }
+
+    /**
+     * 열 전체 (size 길이로 잘린 배열, 수정하면 결과에도 반영된다)
+     */
+    public int[] ints(String column) {
+        return ints[index(column, ColumnType.INT)];
+    }
+
+    public long[] longs(String column) {
+        return longs[index(column, ColumnType.LONG)];
+    }
+
+    public double[] doubles(String column) {
+        return doubles[index(column, ColumnType.DOUBLE)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> keys(String column) {
+        return (List<T>) Arrays.asList(keys[index(column, ColumnType.KEY)]);
+    }
+
+    private int index(String column, ColumnType type) {
+        Integer index = indexes.get(column);
+        if (index == null || types[index] != type) {
+            throw new IllegalArgumentException("no " + type + " column: " + column);
+        }
+        return index;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+        return row;
+    }
+
+    private void append(Object[] row) {
+        if (size == capacity()) {
+            grow(size * 2);
+        }
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            switch (types[i]) {
+                case KEY -> keys[i][size] = value;
+                case INT -> ints[i][size] = value == null ? 0 : ((Number) value).intValue();
+                case LONG -> longs[i][size] = value == null ? 0 : ((Number) value).longValue();
+                case DOUBLE -> doubles[i][size] = value == null ? Double.NaN : ((Number) value).doubleValue();
+            }
+        }
+        size++;
+    }
+
+    private int capacity() {
+        return switch (types[0]) {
+            case KEY -> keys[0].length;
+            case INT -> ints[0].length;
+            case LONG -> longs[0].length;
+            case DOUBLE -> doubles[0].length;
+        };
+    }
+
+    private void grow(int capacity) {
+        for (int i = 0; i < types.length; i++) {
+            switch (types[i]) {
+                case KEY -> keys[i] = Arrays.copyOf(keys[i], capacity);
+                case INT -> ints[i] = Arrays.copyOf(ints[i], capacity);
+                case LONG -> longs[i] = Arrays.copyOf(longs[i], capacity);
+                case DOUBLE -> doubles[i] = Arrays.copyOf(doubles[i], capacity);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+        private final List<Expression<?>> exprs = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder key(String name, Expression<?> expr) {
+            return add(name, ColumnType.KEY, expr);
+        }
+
+        public Builder intColumn(String name, Expression<? extends Number> expr) {
+            return add(name, ColumnType.INT, expr);
+        }
+
+        public Builder longColumn(String name, Expression<? extends Number> expr) {
+            return add(name, ColumnType.LONG, expr);
+        }
+
+        public Builder doubleColumn(String name, Expression<? extends Number> expr) {
+            return add(name, ColumnType.DOUBLE, expr);
+        }
+
+        /**
+         * select 를 제외한 from/join/where/groupBy 가 채워진 쿼리를 받아서 실행한다.
+         */
+        public ColumnarResult fetch(JPAQuery<?> query) {
+            if (exprs.isEmpty()) {
+                throw new IllegalStateException("no columns");
+            }
+            ColumnarResult result = new ColumnarResult(names, types);
+            try (Stream<Object> rows = query.select(new ColumnWriter(result, List.copyOf(exprs))).stream()) {
+                rows.forEach(row -> {
+                });
+            }
+            result.grow(result.size);
+            return result;
+        }
+
+        private Builder add(String name, ColumnType type, Expression<?> expr) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("duplicate column: " + name);
+            }
+            names.add(name);
+            types.add(type);
+            exprs.add(expr);
+            return this;
+        }
+    }
+
+    /**
+     * 행을 객체로 만들지 않고 결과 배열에 바로 쓰는 프로젝션
+     */
+    private static final class ColumnWriter extends FactoryExpressionBase<Object> {
+
+        private static final Object WRITTEN = new Object();
+
+        private final ColumnarResult result;
+        private final List<Expression<?>> args;
+
+        ColumnWriter(ColumnarResult result, List<Expression<?>> args) {
+            super(Object.class);
+            this.result = result;
+            this.args = args;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        public Object newInstance(Object... values) {
+            result.append(values);
+            return WRITTEN;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.Expression;
+
+/**
+ * Projections 대신 쓸 수 있는 리플렉션 없는 DTO 프로젝션
+ */
+public abstract class FastProjections {
+
+    /**
+     * Projections.bean / Projections.fields 대체
+     * 인자는 DTO 프로퍼티와 같은 이름의 경로이거나 as("name") / ExpressionUtils.as(..., "name") 별칭이어야 한다.
+     */
+    public static <T> MethodHandleBean<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return new MethodHandleBean<>(type, exprs);
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+
+/**
+ * Querydsl 쿼리에 하이버네이트 힌트를 붙이는 헬퍼
+ */
+public abstract class JpaQueryHints {
+
+    /**
+     * 쿼리 캐시 사용 (hibernate.cache.use_query_cache 필요)
+     * 결과는 대상 테이블이 변경되면 update-timestamps 로 자동 무효화된다.
+     */
+    public static <T> JPAQuery<T> cacheable(JPAQuery<T> query, String region) {
+        return query
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, region);
+    }
+
+    /**
+     * 조회 전용: 결과 엔티티의 스냅샷을 만들지 않고, 쿼리 전에 auto flush 도 하지 않는다.
+     * 같은 트랜잭션에서 flush 되지 않은 변경은 보이지 않는다.
+     */
+    public static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+}
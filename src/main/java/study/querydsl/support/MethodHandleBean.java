@@ -0,0 +1,224 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean 과 같은 규칙(경로 이름/별칭 = 프로퍼티)으로 DTO 를 채우지만
+ * 행마다 리플렉션을 타지 않고 LambdaMetafactory 로 만든 생성자/세터를 직접 호출한다.
+ * int/long/double 세터는 primitive 함수형 인터페이스로 호출해서 다시 박싱하지 않는다.
+ * 숫자는 값이 그대로 유지될 때만 세터 타입으로 바꾸고, 잘리거나 반올림되면(avg 의 15.5 -> int 등) 예외를 던진다.
+ * 클래스별 생성자와 프로퍼티별 세터는 한 번만 만들어 캐시한다.
+ */
+public class MethodHandleBean<T> extends FactoryExpressionBase<T> {
+
+    private static final ClassValue<Supplier<?>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Supplier<?> computeValue(Class<?> type) {
+            return constructor(type);
+        }
+    };
+
+    private static final ClassValue<Map<String, PropertySetter>> SETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertySetter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final List<Expression<?>> args;
+    private final Supplier<T> constructor;
+    private final PropertySetter[] setters;
+
+    @SuppressWarnings("unchecked")
+    public MethodHandleBean(Class<? extends T> type, Expression<?>... args) {
+        super(type);
+        this.args = List.of(args);
+        this.constructor = (Supplier<T>) CONSTRUCTORS.get(type);
+        this.setters = new PropertySetter[args.length];
+        Map<String, PropertySetter> cache = SETTERS.get(type);
+        for (int i = 0; i < args.length; i++) {
+            setters[i] = cache.computeIfAbsent(propertyName(args[i]), name -> setter(type, name));
+        }
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... values) {
+        T instance = constructor.get();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                setters[i].set(instance, values[i]);
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation
+                && operation.getOperator() == Ops.ALIAS
+                && operation.getArg(1) instanceof Path<?> alias) {
+            return alias.getMetadata().getName();
+        }
+        throw new IllegalArgumentException("unsupported expression (use a path or an alias): " + expr);
+    }
+
+    private static Supplier<?> constructor(Class<?> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            MethodHandle handle = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<?>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + " needs an accessible no-args constructor", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PropertySetter setter(Class<?> type, String property) {
+        Method method = findSetter(type, property);
+        Class<?> valueType = method.getParameterTypes()[0];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            MethodType instantiated = MethodType.methodType(void.class, type, valueType);
+
+            if (valueType == int.class) {
+                ObjIntConsumer<Object> c = (ObjIntConsumer<Object>) lambda(lookup, ObjIntConsumer.class,
+                        MethodType.methodType(void.class, Object.class, int.class), handle, instantiated);
+                return (target, value) -> c.accept(target, toInt(property, value));
+            }
+            if (valueType == long.class) {
+                ObjLongConsumer<Object> c = (ObjLongConsumer<Object>) lambda(lookup, ObjLongConsumer.class,
+                        MethodType.methodType(void.class, Object.class, long.class), handle, instantiated);
+                return (target, value) -> c.accept(target, toLong(property, value));
+            }
+            if (valueType == double.class) {
+                ObjDoubleConsumer<Object> c = (ObjDoubleConsumer<Object>) lambda(lookup, ObjDoubleConsumer.class,
+                        MethodType.methodType(void.class, Object.class, double.class), handle, instantiated);
+                return (target, value) -> c.accept(target, toDouble(property, value));
+            }
+            if (!valueType.isPrimitive()) {
+                BiConsumer<Object, Object> c = (BiConsumer<Object, Object>) lambda(lookup, BiConsumer.class,
+                        MethodType.methodType(void.class, Object.class, Object.class), handle, instantiated);
+                return c::accept;
+            }
+            //그 밖의 primitive(boolean 등)는 MethodHandle 을 직접 호출
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    generic.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("failed to set " + property, e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot bind setter for " + type.getName() + "." + property, e);
+        }
+    }
+
+    private static int toInt(String property, Object value) {
+        long l = toLong(property, value);
+        if ((int) l != l) {
+            throw lossy(property, value, int.class);
+        }
+        return (int) l;
+    }
+
+    private static long toLong(String property, Object value) {
+        Number n = (Number) value;
+        if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+            return n.longValue();
+        }
+        try {
+            if (n instanceof BigInteger b) {
+                return b.longValueExact();
+            }
+            if (n instanceof BigDecimal b) {
+                return b.longValueExact();
+            }
+        } catch (ArithmeticException e) {
+            throw lossy(property, value, long.class);
+        }
+        //NaN 은 어떤 값과도 같지 않으므로 여기서 걸린다, 2^63 이상은 long 으로 바꾸면 MAX_VALUE 로 눌린다
+        double d = n.doubleValue();
+        if (d < -0x1p63 || d >= 0x1p63 || (long) d != d) {
+            throw lossy(property, value, long.class);
+        }
+        return (long) d;
+    }
+
+    private static double toDouble(String property, Object value) {
+        Number n = (Number) value;
+        if (n instanceof Double || n instanceof Float || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+            return n.doubleValue();
+        }
+        double d = n.doubleValue();
+        if (n instanceof Long l) {
+            if (d == 0x1p63 || (long) d != l) {
+                throw lossy(property, value, double.class);
+            }
+            return d;
+        }
+        BigDecimal exact = n instanceof BigDecimal b ? b : n instanceof BigInteger b ? new BigDecimal(b) : null;
+        if (exact != null && (Double.isInfinite(d) || new BigDecimal(d).compareTo(exact) != 0)) {
+            throw lossy(property, value, double.class);
+        }
+        return d;
+    }
+
+    private static IllegalArgumentException lossy(String property, Object value, Class<?> type) {
+        return new IllegalArgumentException("cannot set " + property + " to " + value + " ("
+                + value.getClass().getSimpleName() + ") as " + type + " without losing precision");
+    }
+
+    private static Object lambda(MethodHandles.Lookup lookup, Class<?> functionalInterface, MethodType erased,
+                                 MethodHandle handle, MethodType instantiated) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(functionalInterface), erased, handle, instantiated);
+        return site.getTarget().invoke();
+    }
+
+    private static Method findSetter(Class<?> type, String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("no setter " + name + " on " + type.getName());
+    }
+
+    @FunctionalInterface
+    private interface PropertySetter {
+        void set(Object target, Object value);
+    }
+}
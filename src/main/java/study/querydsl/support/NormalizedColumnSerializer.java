@@ -0,0 +1,94 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.ConstantImpl;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import jakarta.persistence.EntityManager;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 대소문자 무시 조건을 lower() 생성 컬럼 조건으로 바꿔서 직렬화한다.
+ * member.username.equalsIgnoreCase(x)   -> member.usernameNormalized = lower(x)
+ * member.username.startsWithIgnoreCase(x) -> member.usernameNormalized like 'x%'
+ * member.username.lower()                -> member.usernameNormalized
+ * lower(username) 처럼 컬럼을 함수로 감싸면 행마다 함수를 부르고 인덱스를 못 타기 때문이다.
+ * 상수 쪽은 여기서 미리 소문자로 바꿔서 바인딩한다.
+ *
+ * 별칭(QMember("m") 등)과 상관없이 엔티티 타입과 프로퍼티 이름으로 찾는다.
+ */
+public class NormalizedColumnSerializer extends JPQLSerializer {
+
+    //엔티티 -> (원래 프로퍼티 -> lower() 생성 컬럼 프로퍼티)
+    private static final Map<Class<?>, Map<String, String>> NORMALIZED = Map.of(
+            Member.class, Map.of("username", "usernameNormalized"));
+
+    //대소문자 무시 연산 -> 생성 컬럼에 쓸 연산
+    private static final Map<Operator, Operator> CASE_SENSITIVE = Map.of(
+            Ops.EQ_IGNORE_CASE, Ops.EQ,
+            Ops.STARTS_WITH_IC, Ops.STARTS_WITH,
+            Ops.ENDS_WITH_IC, Ops.ENDS_WITH,
+            Ops.STRING_CONTAINS_IC, Ops.STRING_CONTAINS,
+            Ops.LIKE_IC, Ops.LIKE);
+
+    public NormalizedColumnSerializer(JPQLTemplates templates, EntityManager em) {
+        super(templates, em);
+    }
+
+    @Override
+    protected void visitOperation(Class<?> type, Operator operator, List<? extends Expression<?>> args) {
+        if (operator == Ops.LOWER) {
+            Path<?> normalized = normalized(args.get(0));
+            if (normalized != null) {
+                handle(normalized);
+                return;
+            }
+        }
+        Operator caseSensitive = CASE_SENSITIVE.get(operator);
+        if (caseSensitive != null) {
+            Path<?> normalized = normalized(args.get(0));
+            if (normalized != null) {
+                List<Expression<?>> rewritten = new ArrayList<>(args.size());
+                rewritten.add(normalized);
+                rewritten.add(lower(args.get(1)));
+                rewritten.addAll(args.subList(2, args.size()));
+                super.visitOperation(type, caseSensitive, rewritten);
+                return;
+            }
+        }
+        super.visitOperation(type, operator, args);
+    }
+
+    private static Path<?> normalized(Expression<?> expr) {
+        if (!(expr instanceof Path<?> path)) {
+            return null;
+        }
+        PathMetadata metadata = path.getMetadata();
+        Path<?> parent = metadata.getParent();
+        if (parent == null) {
+            return null;
+        }
+        Map<String, String> properties = NORMALIZED.get(parent.getType());
+        String property = properties == null ? null : properties.get(metadata.getName());
+        return property == null ? null : Expressions.stringPath(parent, property);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<?> lower(Expression<?> expr) {
+        if (expr instanceof Constant<?> constant && constant.getConstant() instanceof String value) {
+            return ConstantImpl.create(value.toLowerCase(Locale.ROOT));
+        }
+        return Expressions.stringOperation(Ops.LOWER, (Expression<String>) expr);
+    }
+}
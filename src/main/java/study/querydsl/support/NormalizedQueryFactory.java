@@ -0,0 +1,59 @@
+package study.querydsl.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+/**
+ * 만드는 JPAQuery 가 NormalizedColumnSerializer 로 직렬화되게 하는 JPAQueryFactory
+ * 조회(select/selectFrom/from) 에만 적용되고, update/delete 절은 그대로다.
+ */
+public class NormalizedQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    public NormalizedQueryFactory(EntityManager em) {
+        super(em);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new NormalizedQuery<Void>(em, JPAProvider.getTemplates(em), new DefaultQueryMetadata());
+    }
+
+    /**
+     * query 를 실행할 때와 같은 직렬화기 (QueryTemplate 처럼 JPQL 을 따로 만드는 쪽에서 쓴다)
+     */
+    public static JPQLSerializer createSerializer(JPAQuery<?> query, EntityManager em) {
+        JPQLTemplates templates = JPAProvider.getTemplates(em);
+        return query instanceof NormalizedQuery<?>
+                ? new NormalizedColumnSerializer(templates, em)
+                : new JPQLSerializer(templates, em);
+    }
+
+    static class NormalizedQuery<T> extends JPAQuery<T> {
+
+        NormalizedQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata) {
+            super(em, templates, metadata);
+        }
+
+        @Override
+        protected JPQLSerializer createSerializer() {
+            return new NormalizedColumnSerializer(getTemplates(), entityManager);
+        }
+
+        //count 쿼리 등 복사본에도 같은 직렬화를 쓴다
+        @Override
+        public NormalizedQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+            NormalizedQuery<T> q = new NormalizedQuery<>(entityManager, templates, getMetadata().clone());
+            q.clone(this);
+            return q;
+        }
+    }
+}
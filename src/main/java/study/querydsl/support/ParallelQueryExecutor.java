@@ -0,0 +1,138 @@
+package study.querydsl.support;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 서로 독립적인 쿼리(content + count, 팀별 집계 등)를 동시에 실행한다.
+ * 작업마다 워커 스레드에서 readOnly 트랜잭션을 새로 열기 때문에 공유 EntityManager 프록시가 스레드별로 다른 EntityManager 를 잡는다.
+ * 호출자의 트랜잭션/영속성 컨텍스트와는 섞이지 않으므로, 커밋되지 않은 변경은 보이지 않는다.
+ * 동시에 실행되는 작업 수는 max-concurrency 로 제한한다. (커넥션 풀보다 작게)
+ */
+@Component
+public class ParallelQueryExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration defaultTimeout;
+
+    public ParallelQueryExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${querydsl.parallel.max-concurrency:8}") int maxConcurrency,
+                                 @Value("${querydsl.parallel.timeout:5s}") Duration defaultTimeout,
+                                 @Value("${querydsl.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("parallel-query-", 0).factory())
+                : Executors.newFixedThreadPool(maxConcurrency, platformThreadFactory());
+        this.permits = new Semaphore(maxConcurrency);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return submit(query, defaultTimeout);
+    }
+
+    /**
+     * 제한 시간이 지나거나 반환된 future 를 cancel 하면 워커 스레드를 interrupt 한다.
+     * 트랜잭션 timeout 도 같이 걸어서 실행 중인 SQL 은 JDBC query timeout 으로 끊긴다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query, Duration timeout) {
+        TransactionTemplate tx = new TransactionTemplate(readOnlyTx.getTransactionManager(), readOnlyTx);
+        tx.setTimeout((int) Math.max(1, timeout.toSeconds()));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                permits.acquire();
+                try {
+                    result.complete(tx.execute(status -> query.get()));
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.cancel(false);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (e != null) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 모든 작업이 끝나면 입력 순서대로 결과를 모은다. 하나라도 실패하면 나머지는 취소한다.
+     */
+    public <T> CompletableFuture<List<T>> submitAll(List<Supplier<T>> queries) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(queries.size());
+        for (Supplier<T> query : queries) {
+            futures.add(submit(query));
+        }
+        CompletableFuture<List<T>> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    futures.forEach(f -> results.add(f.join()));
+                    return results;
+                });
+        futures.forEach(f -> f.whenComplete((value, e) -> {
+            if (e != null) {
+                futures.forEach(other -> other.cancel(true));
+            }
+        }));
+        return all;
+    }
+
+    /**
+     * future 결과를 기다린다. 작업에서 난 예외는 CompletionException 을 벗겨서 그대로 던진다.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "parallel-query-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
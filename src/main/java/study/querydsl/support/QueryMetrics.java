@@ -0,0 +1,136 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 쿼리 이름별 지연/반환 행 수/실행 SQL 수/영속성 컨텍스트에 올라온 엔티티 수를 Micrometer 로 기록한다.
+ * 지연(querydsl.query)에는 outcome(success/error) 과 exception 태그가 붙는다.
+ * 이름은 SQL 주석으로도 붙어서 p6spy 로그에서 바로 찾을 수 있다.
+ * 이름은 메트릭 태그가 되므로 호출부에서 상수로 넘겨야 한다.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final EntityManager em;
+    private final long slowQueryThresholdNanos;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry registry, EntityManager em,
+                        @Value("${querydsl.metrics.slow-query-threshold:500ms}") Duration slowQueryThreshold) {
+        this.registry = registry;
+        this.em = em;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    public <T> List<T> fetch(String name, JPAQuery<T> query) {
+        query.setHint(HibernateHints.HINT_COMMENT, name);
+        return record(name, query::fetch, List::size, query::toString);
+    }
+
+    public <T> T fetchOne(String name, JPAQuery<T> query) {
+        query.setHint(HibernateHints.HINT_COMMENT, name);
+        return record(name, query::fetchOne, result -> result == null ? 0 : 1, query::toString);
+    }
+
+    /**
+     * JPAQuery 가 아닌 경로(QueryTemplate, 스트리밍 등)용
+     * work 가 예외를 던져도 지연/실행 SQL 수는 outcome=error, exception=예외 클래스 태그로 기록하고 예외는 그대로 던진다.
+     */
+    public <R> R record(String name, Supplier<R> work, ToLongFunction<R> rowCounter, Supplier<String> jpql) {
+        Meters m = meters.computeIfAbsent(name, this::register);
+        long statementsBefore = QueryCountInspector.count();
+        int entitiesBefore = managedEntities();
+        long start = System.nanoTime();
+
+        R result = null;
+        Throwable failure = null;
+        try {
+            result = work.get();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long statements = QueryCountInspector.count() - statementsBefore;
+            int entities = managedEntities() - entitiesBefore;
+
+            m.statements.increment(statements);
+            if (entities > 0) {
+                m.entities.increment(entities);
+            }
+            long rows = 0;
+            if (failure == null) {
+                rows = rowCounter.applyAsLong(result);
+                m.latency.record(elapsed, TimeUnit.NANOSECONDS);
+                m.rows.record(rows);
+            } else {
+                timer(name, OUTCOME_ERROR, failure.getClass().getSimpleName())
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            if (elapsed > slowQueryThresholdNanos) {
+                log.warn("slow query [{}] {}ms rows={} statements={} outcome={}\n{}",
+                        name, TimeUnit.NANOSECONDS.toMillis(elapsed), rows, statements,
+                        failure == null ? OUTCOME_SUCCESS : OUTCOME_ERROR, jpql.get());
+            }
+        }
+    }
+
+    private int managedEntities() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return 0;
+        }
+        return em.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+
+    private Meters register(String name) {
+        return new Meters(
+                timer(name, OUTCOME_SUCCESS, "none"),
+                DistributionSummary.builder("querydsl.query.rows")
+                        .tag("name", name)
+                        .register(registry),
+                Counter.builder("querydsl.query.statements")
+                        .tag("name", name)
+                        .register(registry),
+                Counter.builder("querydsl.query.entities.loaded")
+                        .tag("name", name)
+                        .register(registry));
+    }
+
+    //실패는 드물고 예외 종류가 미리 정해지지 않으므로 캐시하지 않고 레지스트리에서 찾는다
+    private Timer timer(String name, String outcome, String exception) {
+        return Timer.builder("querydsl.query")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private record Meters(Timer latency, DistributionSummary rows, Counter statements, Counter entities) {
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 번 직렬화한 JPQL 을 재사용하는 쿼리
+ * 값은 Param 으로 받아두고 실행할 때마다 파라미터만 바인딩한다.
+ * 같은 JPQL 문자열을 쓰므로 하이버네이트 쿼리 플랜 캐시도 그대로 탄다.
+ */
+public final class QueryTemplate<T> {
+
+    private final String jpql;
+    private final List<Object> constants;
+    private final FactoryExpression<T> projection;
+
+    private QueryTemplate(String jpql, List<Object> constants, FactoryExpression<T> projection) {
+        this.jpql = jpql;
+        this.constants = constants;
+        this.projection = projection;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> QueryTemplate<T> of(EntityManager em, JPAQuery<T> query) {
+        QueryMetadata metadata = query.getMetadata();
+        //실행 경로와 같은 직렬화기를 써야 대소문자 무시 조건이 생성 컬럼으로 바뀐다
+        JPQLSerializer serializer = NormalizedQueryFactory.createSerializer(query, em);
+        serializer.serialize(metadata, false, null);
+
+        Expression<?> projection = metadata.getProjection();
+        return new QueryTemplate<>(serializer.toString(),
+                List.copyOf(serializer.getConstants()),
+                projection instanceof FactoryExpression ? (FactoryExpression<T>) projection : null);
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> fetch(EntityManager em, Map<ParamExpression<?>, Object> params) {
+        Query query = em.createQuery(jpql);
+        JPAUtil.setConstants(query, constants, params);
+        List<?> rows = query.getResultList();
+        if (projection == null) {
+            return (List<T>) rows;
+        }
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.newInstance(row instanceof Object[] array ? array : new Object[]{row}));
+        }
+        return result;
+    }
+}
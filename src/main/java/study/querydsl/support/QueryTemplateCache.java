@@ -0,0 +1,36 @@
+package study.querydsl.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 조건의 모양(어떤 조건이 있는지)을 키로 QueryTemplate 을 보관한다.
+ * 값이 아니라 모양이 키이므로 조합 수만큼만 쌓이며,
+ * maxSize 를 넘는 모양은 캐시하지 않고 매번 만든다. (hibernate.query.plan_cache_max_size 보다 작게 유지)
+ */
+public class QueryTemplateCache<K> {
+
+    private final Map<K, QueryTemplate<?>> templates = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public QueryTemplateCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> QueryTemplate<T> get(K shape, Function<K, QueryTemplate<T>> factory) {
+        QueryTemplate<?> template = templates.get(shape);
+        if (template == null) {
+            template = factory.apply(shape);
+            if (templates.size() < maxSize) {
+                templates.putIfAbsent(shape, template);
+            }
+        }
+        return (QueryTemplate<T>) template;
+    }
+
+    public int size() {
+        return templates.size();
+    }
+}
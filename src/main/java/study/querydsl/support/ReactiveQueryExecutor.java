@@ -0,0 +1,99 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static study.querydsl.support.JpaQueryHints.readOnly;
+
+/**
+ * WebFlux 등 리액티브 호출자용 Querydsl 조회
+ * 블로킹 JDBC 는 전용 스레드(max-concurrency 개, 커넥션 풀보다 작게)에서만 실행하고 호출 스레드(event loop)는 막지 않는다.
+ * 스레드가 모두 바쁠 때 기다릴 수 있는 작업은 스레드당 max-queued 개까지이고, 넘치면 구독자가
+ * RejectedExecutionException 을 받는다. (대기열이 끝없이 쌓여 지연만 늘어나는 대신 포화를 바로 드러낸다)
+ *
+ * stream 은 구독자가 요청한 만큼만 chunk-size 건씩 키셋(key > 마지막 값)으로 읽는다.
+ * 전체 결과를 List 로 모으지 않고, 구독자가 느려도 메모리에는 chunk 하나(+ 미리 읽은 chunk 하나)만 있다.
+ * chunk 마다 readOnly 트랜잭션을 새로 열고 닫으므로 느린 구독자가 커넥션을 붙잡지 않는 대신,
+ * chunk 사이에 커밋된 변경이 보일 수 있다. (전체가 한 시점의 스냅샷은 아니다)
+ */
+@Component
+public class ReactiveQueryExecutor {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final Scheduler scheduler;
+    private final int chunkSize;
+
+    public ReactiveQueryExecutor(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager,
+                                 @Value("${querydsl.reactive.max-concurrency:8}") int maxConcurrency,
+                                 @Value("${querydsl.reactive.max-queued:1000}") int maxQueued,
+                                 @Value("${querydsl.reactive.chunk-size:500}") int chunkSize,
+                                 @Value("${querydsl.reactive.timeout:5s}") Duration timeout) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setTimeout((int) Math.max(1, timeout.toSeconds()));
+        this.scheduler = Schedulers.newBoundedElastic(maxConcurrency, maxQueued, "reactive-query");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 결과가 한 건(또는 없음)인 조회
+     */
+    public <T> Mono<T> fetchOne(Function<JPAQueryFactory, JPAQuery<T>> query) {
+        return Mono.fromCallable(() -> readOnlyTx.execute(status -> readOnly(query.apply(queryFactory)).fetchOne()))
+                .subscribeOn(scheduler);
+    }
+
+    public <T> Flux<T> stream(Function<JPAQueryFactory, JPAQuery<T>> query, NumberPath<Long> key,
+                              Function<T, Long> keyOf) {
+        return stream(query, key, keyOf, chunkSize);
+    }
+
+    /**
+     * key 오름차순으로 query 결과를 흘려보낸다.
+     * query 는 chunk 마다 다시 만들므로 같은 조건을 돌려줘야 하고, 정렬/limit 은 붙이지 않는다. (key 로 고정)
+     * 프로젝션에 key 값이 들어 있어야 한다. (keyOf 로 다음 chunk 시작점을 얻음)
+     */
+    public <T> Flux<T> stream(Function<JPAQueryFactory, JPAQuery<T>> query, NumberPath<Long> key,
+                              Function<T, Long> keyOf, int chunkSize) {
+        Flux<List<T>> chunks = Flux.<List<T>, Long>generate(() -> Long.MIN_VALUE, (after, sink) -> {
+            List<T> chunk = readOnlyTx.execute(status -> readOnly(query.apply(queryFactory))
+                    .where(key.gt(after))
+                    .orderBy(key.asc())
+                    .limit(chunkSize)
+                    .fetch());
+            if (!chunk.isEmpty()) {
+                sink.next(chunk);
+            }
+            if (chunk.size() < chunkSize) {
+                sink.complete();
+                return after;
+            }
+            return keyOf.apply(chunk.get(chunk.size() - 1));
+        });
+        //요청(request)도 전용 스레드로 넘겨서 다음 chunk 조회가 구독자 스레드에서 일어나지 않게 한다
+        return chunks
+                .subscribeOn(scheduler)
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
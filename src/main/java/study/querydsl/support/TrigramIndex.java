@@ -0,0 +1,192 @@
+package study.querydsl.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * id -> 문자열 값에 대한 메모리 n-gram(3글자) 색인, 대소문자는 구분하지 않는다.
+ * 검색어의 3글자 조각 중 id 가 가장 적게 걸린 조각의 후보만 실제 값과 비교하므로
+ * like '%x%' 처럼 전체 행을 훑지 않는다. 3글자보다 짧은 검색어는 값 전체를 훑는다.
+ *
+ * 값이 바뀌거나 지워져도 예전 조각 목록에서 바로 빼지 않고(후보 검증에서 걸러짐),
+ * 남은 항목이 살아 있는 값 수보다 많아지면 조각 목록을 다시 만든다.
+ */
+public class TrigramIndex {
+
+    public enum Match {
+        EXACT, PREFIX, CONTAINS
+    }
+
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> values = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private long stale;
+
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * value 가 null 이면 삭제
+     */
+    public void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            putLocked(id, normalize(value));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Map<Long, String> changes) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, String> change : changes.entrySet()) {
+                putLocked(change.getKey(), normalize(change.getValue()));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        put(id, null);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 조건에 맞는 id 를 오름차순으로 최대 limit 개
+     */
+    public List<Long> find(String query, Match match, int limit) {
+        String q = normalize(query);
+        lock.readLock().lock();
+        try {
+            long[] found = q.length() < GRAM ? scan(q, match) : probe(q, match);
+            Arrays.sort(found);
+            return distinct(found, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(long id, String value) {
+        String old = value == null ? values.remove(id) : values.put(id, value);
+        if (value != null && value.equals(old)) {
+            return;
+        }
+        if (old != null) {
+            stale += grams(old);
+        }
+        if (value != null) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                postings.computeIfAbsent(value.substring(i, i + GRAM), g -> new Posting()).add(id);
+            }
+        }
+    }
+
+    private long[] probe(String q, Match match) {
+        Posting smallest = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Posting posting = postings.get(q.substring(i, i + GRAM));
+            if (posting == null) {
+                return new long[0];
+            }
+            if (smallest == null || posting.size < smallest.size) {
+                smallest = posting;
+            }
+        }
+        long[] found = new long[smallest.size];
+        int n = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            if (matches(values.get(id), q, match)) {
+                found[n++] = id;
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    private long[] scan(String q, Match match) {
+        long[] found = new long[16];
+        int n = 0;
+        for (Map.Entry<Long, String> entry : values.entrySet()) {
+            if (matches(entry.getValue(), q, match)) {
+                if (n == found.length) {
+                    found = Arrays.copyOf(found, n * 2);
+                }
+                found[n++] = entry.getKey();
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    private static boolean matches(String value, String q, Match match) {
+        if (value == null) {
+            return false;
+        }
+        return switch (match) {
+            case EXACT -> value.equals(q);
+            case PREFIX -> value.startsWith(q);
+            case CONTAINS -> value.contains(q);
+        };
+    }
+
+    //이름이 A -> B -> A 로 바뀌면 같은 조각 목록에 id 가 두 번 들어 있을 수 있다
+    private static List<Long> distinct(long[] sorted, int limit) {
+        Long[] result = new Long[Math.min(sorted.length, limit)];
+        int n = 0;
+        for (int i = 0; i < sorted.length && n < limit; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                result[n++] = sorted[i];
+            }
+        }
+        return Arrays.asList(Arrays.copyOf(result, n));
+    }
+
+    private void compactIfNeeded() {
+        if (stale <= Math.max(values.size(), 1024)) {
+            return;
+        }
+        postings.clear();
+        stale = 0;
+        for (Map.Entry<Long, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                postings.computeIfAbsent(value.substring(i, i + GRAM), g -> new Posting()).add(entry.getKey());
+            }
+        }
+    }
+
+    private static int grams(String value) {
+        return Math.max(value.length() - GRAM + 1, 0);
+    }
+
+    private static class Posting {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
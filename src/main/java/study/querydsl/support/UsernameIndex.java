@@ -0,0 +1,218 @@
+package study.querydsl.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Member.username 검색 색인 (TrigramIndex)
+ * 기동 시 member 테이블 전체로 만들고, 이후에는 커밋된 변경만 반영한다.
+ * - 엔티티 변경: UsernameIndexListener 가 트랜잭션 완료 후 refresh
+ * - 벌크 update/delete, JDBC 적재: 호출하는 쪽이 refresh / loadAfterCommit
+ * MemberFixtures 처럼 JDBC 로 직접 넣은 데이터는 rebuild() 를 불러야 보인다.
+ *
+ * querydsl.username-index.enabled=false 이거나 아직 만들어지지 않았으면 isReady() 가 false 이고,
+ * 검색하는 쪽은 like 로 돌아간다.
+ *
+ * DB 는 락 밖에서 읽고, 메모리 반영만 짧게 락을 잡는다. 회원마다 읽은 version 을 기억해서
+ * 늦게 도착한 옛 값(더 낮은 version)은 버리므로 반영 순서가 뒤바뀌어도 마지막 커밋 값이 남는다.
+ * 삭제된 회원은 Long.MAX_VALUE version 으로 남겨 두어 삭제 전에 읽은 값이 되살아나지 않게 한다. (rebuild 때 정리)
+ */
+@Slf4j
+@Component
+public class UsernameIndex {
+
+    private static final int REFRESH_CHUNK = 1000;
+    private static final int LOAD_BATCH = 10_000;
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    //index, versions, pending 교체/반영용. 안에서 DB 를 읽지 않는다
+    private final Lock lock = new ReentrantLock();
+    //rebuild 끼리만 직렬화 (전체 스캔 동안 잡고 있지만 검색/반영은 막지 않는다)
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private volatile TrigramIndex index;
+    private Map<Long, Long> versions = new HashMap<>();
+    //rebuild 중에 읽은 변경, 새 색인에 다시 적용한다
+    private List<Row> pending;
+
+    public UsernameIndex(JdbcTemplate jdbcTemplate, @Value("${querydsl.username-index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * 검색어에 맞는 회원 id, 오름차순 최대 limit 개
+     */
+    public List<Long> find(String query, TrigramIndex.Match match, int limit) {
+        TrigramIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("username index is not ready");
+        }
+        return current.find(query, match, limit);
+    }
+
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+            TrigramIndex fresh = new TrigramIndex();
+            Map<Long, Long> freshVersions = new HashMap<>();
+            jdbcTemplate.query("select member_id, username, version from member", rs -> {
+                fresh.put(rs.getLong(1), rs.getString(2));
+                freshVersions.put(rs.getLong(1), rs.getLong(3));
+            });
+            lock.lock();
+            try {
+                apply(fresh, freshVersions, pending);
+                pending = null;
+                index = fresh;
+                versions = freshVersions;
+            } finally {
+                lock.unlock();
+            }
+            log.info("username index built: {} members in {}ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+            return fresh.size();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * id 구간 [fromId, toId] 의 회원을 현재 트랜잭션이 커밋된 뒤에 읽어서 반영 (JDBC 적재용)
+     * 트랜잭션 밖이면 바로 반영한다.
+     */
+    public void loadAfterCommit(long fromId, long toId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            load(fromId, toId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                load(fromId, toId);
+            }
+        });
+    }
+
+    /**
+     * 주어진 회원의 현재 username 을 다시 읽어서 반영 (없어진 회원은 삭제)
+     * 변경이 이미 커밋된 뒤에 불러야 한다.
+     */
+    public void refresh(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(memberIds);
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK) {
+            if (!isTracking()) {
+                return;
+            }
+            List<Long> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK, ids.size()));
+            Map<Long, Row> rows = new LinkedHashMap<>();
+            for (Long id : chunk) {
+                rows.put(id, new Row(id, null, DELETED));
+            }
+            jdbcTemplate.query("select member_id, username, version from member where member_id in (" +
+                    String.join(",", Collections.nCopies(chunk.size(), "?")) + ")", rs -> {
+                rows.put(rs.getLong(1), new Row(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+            }, chunk.toArray());
+            apply(new ArrayList<>(rows.values()));
+        }
+    }
+
+    private void load(long fromId, long toId) {
+        if (!isTracking()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>();
+        jdbcTemplate.query("select member_id, username, version from member where member_id between ? and ?", rs -> {
+            rows.add(new Row(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+            if (rows.size() == LOAD_BATCH) {
+                apply(new ArrayList<>(rows));
+                rows.clear();
+            }
+        }, fromId, toId);
+        apply(rows);
+    }
+
+    //만들어져 있거나 만드는 중(pending 에 쌓임)일 때만 반영할 의미가 있다
+    private boolean isTracking() {
+        lock.lock();
+        try {
+            return index != null || pending != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.addAll(rows);
+            }
+            if (index != null) {
+                apply(index, versions, rows);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //이미 더 새 version 을 반영한 회원은 건너뛴다
+    private static void apply(TrigramIndex target, Map<Long, Long> targetVersions, List<Row> rows) {
+        Map<Long, String> changes = new HashMap<>();
+        for (Row row : rows) {
+            Long known = targetVersions.get(row.id());
+            if (known != null && known > row.version()) {
+                continue;
+            }
+            targetVersions.put(row.id(), row.version());
+            changes.put(row.id(), row.username());
+        }
+        target.putAll(changes);
+    }
+
+    //username 이 null 이면 삭제
+    private record Row(long id, String username, long version) {
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.support;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Querydsl JPQL 로는 over() 를 쓸 수 없어서 HQL 함수로 등록한다.
+ * META-INF/services/org.hibernate.boot.model.FunctionContributor 로 로딩된다.
+ */
+public class WindowFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicType<Double> doubleType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        registry.patternDescriptorBuilder("avg_over", "avg(?1) over ()")
+                .setExactArgumentCount(1)
+                .setInvariantType(doubleType)
+                .register();
+        registry.patternDescriptorBuilder("avg_over_partition", "avg(?1) over (partition by ?2)")
+                .setExactArgumentCount(2)
+                .setInvariantType(doubleType)
+                .register();
+        registry.patternDescriptorBuilder("max_over", "max(?1) over ()")
+                .setExactArgumentCount(1)
+                .setReturnTypeResolver(StandardFunctionReturnTypeResolvers.useArgType(1))
+                .register();
+        registry.patternDescriptorBuilder("max_over_partition", "max(?1) over (partition by ?2)")
+                .setExactArgumentCount(2)
+                .setReturnTypeResolver(StandardFunctionReturnTypeResolvers.useArgType(1))
+                .register();
+    }
+}
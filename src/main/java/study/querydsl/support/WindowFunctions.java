@@ -0,0 +1,37 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.NumberTemplate;
+
+/**
+ * select 절의 집계 서브쿼리 대신 쓰는 윈도 함수 (WindowFunctionContributor 가 등록한 HQL 함수)
+ * select username, (select max(age) from member) from member 를
+ * select username, max(age) over () from member 로 바꾸면 테이블을 한 번만 읽는다.
+ * where 절에는 쓸 수 없다. (SQL 제약, 조건에는 SubqueryRewriter 를 쓴다)
+ *
+ * 주의: over () 는 바깥 쿼리의 where/join 을 거친 행들에 대한 집계다.
+ * 서브쿼리는 테이블 전체를 집계하므로, 바깥 쿼리가 조건 없이 같은 테이블 전체를 읽을 때만 둘이 같다.
+ * 조건이 있으면 "걸러진 행들 중 최대값"이 되어 결과가 달라진다. (그럴 땐 SubqueryRewriter.scalar 로 값을 먼저 구한다)
+ * partitionBy 버전도 마찬가지로 걸러진 행들 안에서만 나눈다.
+ */
+public abstract class WindowFunctions {
+
+    public static NumberTemplate<Double> avgOver(NumberExpression<?> expression) {
+        return Expressions.numberTemplate(Double.class, "avg_over({0})", expression);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberTemplate<T> maxOver(NumberExpression<T> expression) {
+        return Expressions.numberTemplate(expression.getType(), "max_over({0})", expression);
+    }
+
+    public static NumberTemplate<Double> avgOver(NumberExpression<?> expression, Expression<?> partitionBy) {
+        return Expressions.numberTemplate(Double.class, "avg_over_partition({0}, {1})", expression, partitionBy);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberTemplate<T> maxOver(NumberExpression<T> expression,
+                                                                            Expression<?> partitionBy) {
+        return Expressions.numberTemplate(expression.getType(), "max_over_partition({0}, {1})", expression, partitionBy);
+    }
+}
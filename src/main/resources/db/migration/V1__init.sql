@@ -0,0 +1,41 @@
+create sequence hello_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 100;
+create sequence member_seq start with 1 increment by 100;
+
+create table hello (
+    id bigint not null,
+    primary key (id)
+);
+
+create table team (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table member (
+    member_id bigint not null,
+    username varchar(255),
+    age integer not null,
+    team_id bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (id)
+);
+
+create table team_stats (
+    team_id bigint not null,
+    member_count bigint not null,
+    age_sum bigint not null,
+    min_age integer,
+    max_age integer,
+    primary key (team_id)
+);
+
+-- member.username.eq / like 'x%'
+create index idx_member_username on member (username);
+-- join(member.team) + member.age 조건, 팀별 집계
+create index idx_member_team_age on member (team_id, age);
+-- member.age.gt/goe/between, 키셋 페이징 (age, member_id)
+create index idx_member_age on member (age);
+-- team.name.eq (회원 검색의 팀명 조건)
+create index idx_team_name on team (name);
@@ -0,0 +1,3 @@
+-- 낙관적 락 (@Version)
+alter table member add column version bigint default 0 not null;
+alter table team add column version bigint default 0 not null;
@@ -0,0 +1,4 @@
+-- 대소문자 무시 검색용 (eqIgnoreCase/startsWithIgnoreCase -> username_normalized = / like 'x%')
+-- 생성 컬럼이라 JPA, 벌크 update, JDBC 적재 어느 경로로 써도 DB 가 맞춰준다
+alter table member add column username_normalized varchar(255) generated always as (lower(username));
+create index idx_member_username_normalized on member (username_normalized);
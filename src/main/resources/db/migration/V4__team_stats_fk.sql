@@ -0,0 +1,3 @@
+-- 팀을 지우면 통계 행도 같이 지운다 (예전에 남은 고아 행은 먼저 정리)
+delete from team_stats where team_id not in (select id from team);
+alter table team_stats add constraint fk_team_stats_team foreign key (team_id) references team (id) on delete cascade;
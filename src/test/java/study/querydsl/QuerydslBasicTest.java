@@ -28,6 +28,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.support.QueryBudget;
 
 import java.util.List;
 
@@ -97,6 +98,7 @@ public class QuerydslBasicTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     public void startQuerydsl(){
 
         //1)⺻ νϽ 
@@ -272,6 +274,7 @@ public class QuerydslBasicTest {
      * A Ҽӵ  ȸ
      * */
     @Test
+    @QueryBudget(statements = 1)
     public void join(){
         List<Member> result = queryFactory
                 .selectFrom(member)
@@ -347,6 +350,7 @@ public class QuerydslBasicTest {
     EntityManagerFactory emf;
 
     @Test
+    @QueryBudget(statements = 1, entityLoads = 2)
     public void fetchJoinNo() throws Exception{
         em.flush();
         em.clear();
@@ -0,0 +1,24 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("bench")
+class ConnectionPoolMetricsTest {
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    public void poolGaugesAreRegistered() {
+        assertThat(registry.find("querydsl.pool.utilization").gauge()).isNotNull();
+        assertThat(registry.find("querydsl.pool.waiting.ratio").gauge().value()).isZero();
+        assertThat(registry.find("hikaricp.connections.pending").gauge()).isNotNull();
+    }
+}
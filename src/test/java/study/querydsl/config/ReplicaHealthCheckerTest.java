@@ -0,0 +1,84 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * RoutingDataSourceConfig + SchedulingConfig 만 띄워서 ReplicaHealthChecker 가 스케줄로 실제로 돌고
+ * 지연된 레플리카를 감지하면 readOnly 트랜잭션이 primary 로 가는지 확인한다.
+ */
+class ReplicaHealthCheckerTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(TestConfig.class, RoutingDataSourceConfig.class, SchedulingConfig.class)
+            .withPropertyValues(
+                    "querydsl.routing.enabled=true",
+                    "querydsl.routing.health-check-interval-ms=50",
+                    "querydsl.routing.max-lag-seconds=5",
+                    "querydsl.routing.primary.jdbc-url=jdbc:h2:mem:checkprimary;DB_CLOSE_DELAY=-1",
+                    "querydsl.routing.primary.username=sa",
+                    "querydsl.routing.replica.jdbc-url=jdbc:h2:mem:checkreplica;DB_CLOSE_DELAY=-1",
+                    "querydsl.routing.replica.username=sa");
+
+    @Test
+    public void scheduledCheckRoutesReadsToPrimaryWhenReplicaLags() {
+        runner.withPropertyValues("querydsl.routing.replica-lag-query=select 30").run(context -> {
+            ReplicaHealthChecker checker = context.getBean(ReplicaHealthChecker.class);
+            awaitUsable(checker, false);
+
+            DataSource dataSource = context.getBean("dataSource", DataSource.class);
+            assertThat(readOnlyDatabase(dataSource)).isEqualToIgnoringCase("CHECKPRIMARY");
+            assertThat(context.getBean(MeterRegistry.class).get("querydsl.routing.replica.usable").gauge().value())
+                    .isZero();
+        });
+    }
+
+    @Test
+    public void healthyReplicaServesReads() {
+        runner.withPropertyValues("querydsl.routing.replica-lag-query=select 1").run(context -> {
+            ReplicaHealthChecker checker = context.getBean(ReplicaHealthChecker.class);
+            awaitUsable(checker, true);
+
+            DataSource dataSource = context.getBean("dataSource", DataSource.class);
+            assertThat(readOnlyDatabase(dataSource)).isEqualToIgnoringCase("CHECKREPLICA");
+        });
+    }
+
+    private static void awaitUsable(ReplicaHealthChecker checker, boolean usable) throws InterruptedException {
+        //처음 값은 usable=true 이므로 몇 번 돌 시간을 준 뒤 확인한다
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        Thread.sleep(200);
+        while (checker.isUsable() != usable && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(checker.isUsable()).isEqualTo(usable);
+    }
+
+    private static String readOnlyDatabase(DataSource dataSource) {
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 로컬 H2 두 개(primary, replica)로 라우팅 확인
+ */
+class ReplicaRoutingDataSourceTest {
+
+    DriverManagerDataSource primary;
+    DriverManagerDataSource replica;
+    ReplicaHealthChecker healthChecker;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readWrite;
+    TransactionTemplate readOnly;
+
+    @BeforeEach
+    public void before() {
+        primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+        replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "");
+        healthChecker = new ReplicaHealthChecker(replica, null, 5);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, healthChecker));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica() {
+        assertThat(readOnly.execute(status -> currentDatabase())).isEqualToIgnoringCase("REPLICA");
+    }
+
+    @Test
+    public void writeTransactionGoesToPrimary() {
+        assertThat(readWrite.execute(status -> currentDatabase())).isEqualToIgnoringCase("PRIMARY");
+        assertThat(currentDatabase()).isEqualToIgnoringCase("PRIMARY");
+    }
+
+    @Test
+    public void lagBeyondLimitFallsBackToPrimary() {
+        healthChecker = new ReplicaHealthChecker(replica, "select 30", 5);
+        healthChecker.check();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, healthChecker));
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        tx.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        assertThat(healthChecker.isUsable()).isFalse();
+        assertThat(tx.execute(status -> currentDatabase())).isEqualToIgnoringCase("PRIMARY");
+
+        healthChecker = new ReplicaHealthChecker(replica, "select 1", 5);
+        healthChecker.check();
+        assertThat(healthChecker.isUsable()).isTrue();
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class);
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 동시 요청 수를 바꿔가며 처리량과 p99 지연을 잰다.
+ * -DloadTest=true 일 때만 실행, 대상 경로는 -DloadTest.path (기본 /hello)
+ * 조건 애노테이션은 상속되지 않으므로 하위 클래스마다 @EnabledIfSystemProperty 를 붙인다.
+ */
+@Slf4j
+abstract class AbstractLoadTest {
+
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @LocalServerPort
+    int port;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    public void load(int concurrency) throws Exception {
+        String path = System.getProperty("loadTest.path", "/hello");
+        URI uri = URI.create("http://localhost:" + port + path);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long[] latencies = new long[concurrency * REQUESTS_PER_CLIENT];
+        AtomicLong failures = new AtomicLong();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c * REQUESTS_PER_CLIENT;
+                futures.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[offset + i] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        double throughput = latencies.length * 1_000_000_000.0 / elapsed;
+        long p99 = latencies[(int) (latencies.length * 0.99) - 1];
+        log.info("[{}] path={} concurrency={} throughput={} req/s p99={}ms failures={}",
+                mode(), path, concurrency, (long) throughput, Duration.ofNanos(p99).toMillis(), failures.get());
+
+        assertThat(failures.get()).isLessThan(latencies.length / 100);
+    }
+
+    abstract String mode();
+}
@@ -0,0 +1,18 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=warn"})
+@ActiveProfiles("virtual")
+class VirtualThreadLoadTest extends AbstractLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
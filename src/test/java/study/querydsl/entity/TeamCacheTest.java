@@ -0,0 +1,103 @@
+package study.querydsl.entity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.TeamQueryRepository;
+import study.querydsl.support.MemberFixtures;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 올라가므로 트랜잭션 롤백 대신 직접 정리한다.
+ */
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        teamId = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            return teamA.getId();
+        });
+        emf.getCache().evictAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void teamIsServedFromSecondLevelCache() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        assertThat(statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void teamMembersCollectionIsCached() {
+        tx.executeWithoutResult(status -> assertThat(em.find(Team.class, teamId).getMembers()).hasSize(2));
+        tx.executeWithoutResult(status -> assertThat(em.find(Team.class, teamId).getMembers()).hasSize(2));
+
+        assertThat(statistics.getCollectionStatistics(Team.class.getName() + ".members").getCacheHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void reportingQueryUsesQueryCache() {
+        teamQueryRepository.averageAgeByTeam();
+        assertThat(teamQueryRepository.averageAgeByTeam())
+                .singleElement()
+                .satisfies(dto -> assertThat(dto.getAverageAge()).isEqualTo(15));
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    //query.reporting 은 쿼리가 처음 돌 때 쓰이지만 기동 때 이미 만들어져 메트릭이 붙어 있어야 한다
+    @Test
+    public void queryCacheRegionHasMetrics() {
+        assertThat(meterRegistry.find("cache.puts").tag("cache", TeamQueryRepository.REPORTING_REGION).meters())
+                .isNotEmpty();
+    }
+}
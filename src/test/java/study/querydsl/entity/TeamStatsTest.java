@@ -0,0 +1,247 @@
+package study.querydsl.entity;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.TeamQueryRepository;
+import study.querydsl.service.BulkProgressListener;
+import study.querydsl.service.MemberBulkExecutor;
+import study.querydsl.service.MemberBulkLoader;
+import study.querydsl.service.MemberInsertRow;
+import study.querydsl.service.TeamStatsReconciler;
+import study.querydsl.support.MemberFixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * TeamStats 는 커밋 직전에 반영되므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+ * 매 단계마다 실제 group by 결과와 비교한다.
+ */
+@SpringBootTest
+class TeamStatsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Autowired
+    MemberBulkExecutor memberBulkExecutor;
+
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+
+    @Autowired
+    TeamStatsReconciler teamStatsReconciler;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+    }
+
+    @Test
+    public void persist() {
+        assertThat(teamQueryRepository.teamStats())
+                .extracting("teamName", "memberCount", "averageAge", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 2L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 35.0, 30, 40));
+        assertConsistent();
+    }
+
+    @Test
+    public void emptyTeam() {
+        tx.executeWithoutResult(status -> em.persist(new Team("teamC")));
+
+        assertThat(teamQueryRepository.teamStats())
+                .extracting("teamName", "memberCount")
+                .contains(tuple("teamC", 0L));
+        assertConsistent();
+    }
+
+    @Test
+    public void removeTeam() {
+        Long teamCId = tx.execute(status -> {
+            Team teamC = new Team("teamC");
+            em.persist(teamC);
+            return teamC.getId();
+        });
+        tx.executeWithoutResult(status -> em.remove(em.find(Team.class, teamCId)));
+
+        //같은 트랜잭션에서 만들고 지운 팀도 통계 행을 남기지 않는다
+        tx.executeWithoutResult(status -> {
+            Team teamD = new Team("teamD");
+            em.persist(teamD);
+            em.flush();
+            em.remove(teamD);
+        });
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team_stats", Long.class)).isEqualTo(2);
+        assertConsistent();
+    }
+
+    @Test
+    public void changeTeamUpdateAndRemove() {
+        tx.executeWithoutResult(status -> {
+            Member member1 = findByUsername("member1");
+            member1.changeTeam(em.find(Team.class, teamBId));
+            findByUsername("member3").setAge(5);
+            em.remove(findByUsername("member4"));
+        });
+
+        assertThat(teamQueryRepository.teamStats())
+                .extracting("teamName", "memberCount", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 1L, 20, 20),
+                        tuple("teamB", 2L, 5, 10));
+        assertConsistent();
+    }
+
+    @Test
+    public void rollbackLeavesStatsUntouched() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member5", 99, em.find(Team.class, teamAId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertConsistent();
+    }
+
+    @Test
+    public void bulkUpdateAndDelete() {
+        tx.executeWithoutResult(status -> memberBulkExecutor.update(member.age.goe(30),
+                clause -> clause.set(member.team, em.getReference(Team.class, teamAId)),
+                BulkProgressListener.NONE));
+        assertConsistent();
+
+        memberBulkExecutor.delete(member.age.lt(15), BulkProgressListener.NONE);
+        assertConsistent();
+    }
+
+    @Test
+    public void jdbcInsert() {
+        memberBulkLoader.insertRows(IntStream.range(0, 50)
+                .mapToObj(i -> new MemberInsertRow("bulk" + i, i, i % 2 == 0 ? teamAId : teamBId)));
+
+        assertConsistent();
+    }
+
+    @Test
+    public void rebuildRepairsDrift() {
+        jdbcTemplate.update("update team_stats set member_count = 999");
+
+        int teams = teamStatsReconciler.rebuild();
+
+        assertThat(teams).isEqualTo(2);
+        assertConsistent();
+    }
+
+    @Test
+    public void concurrentCommitsOnSameTeam() throws Exception {
+        int writers = 8;
+        List<Long> memberIds = tx.execute(status -> {
+            Team teamA = em.find(Team.class, teamAId);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                Member m = new Member("writer" + i, 0, teamA);
+                em.persist(m);
+                ids.add(m.getId());
+            }
+            return ids;
+        });
+
+        //서로 다른 회원을 고치지만 모두 teamA 통계를 다시 계산한다
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long memberId : memberIds) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= 20; i++) {
+                        int age = i;
+                        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(age));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertConsistent();
+        assertThat(jdbcTemplate.queryForObject("select age_sum from team_stats where team_id = ?", Long.class, teamAId))
+                .isEqualTo(10 + 20 + writers * 20L);
+    }
+
+    private Member findByUsername(String username) {
+        return queryFactory.selectFrom(member).where(member.username.eq(username)).fetchOne();
+    }
+
+    private void assertConsistent() {
+        List<List<Object>> live = tx.execute(status -> queryFactory
+                .select(team.name, member.count(), member.age.min(), member.age.max())
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.name)
+                .orderBy(team.name.asc())
+                .fetch()
+                .stream()
+                .map(t -> List.<Object>of(t.get(team.name), t.get(member.count()),
+                        String.valueOf(t.get(member.age.min())), String.valueOf(t.get(member.age.max()))))
+                .toList());
+
+        List<List<Object>> stats = teamQueryRepository.teamStats().stream()
+                .map(dto -> List.<Object>of(dto.getTeamName(), dto.getMemberCount(),
+                        String.valueOf(dto.getMinAge()), String.valueOf(dto.getMaxAge())))
+                .toList();
+
+        assertThat(stats).isEqualTo(live);
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryBudget;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class FetchPlansTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    FetchPlans fetchPlans;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 5; i++) {
+            Team t = new Team("team" + i);
+            em.persist(t);
+            em.persist(new Member("member" + i + "_1", 10, t));
+            em.persist(new Member("member" + i + "_2", 20, t));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @QueryBudget(statements = 1, entityLoads = 15, collectionFetches = 0)
+    public void memberWithTeam() {
+        List<Member> members = fetchPlans.apply(FetchPlans.MEMBER_WITH_TEAM, queryFactory.selectFrom(member))
+                .fetch();
+        members.forEach(m -> m.getTeam().getName());
+        assertThat(members).hasSize(10);
+    }
+
+    @Test
+    @QueryBudget(statements = 1, collectionFetches = 0)
+    public void memberWithTeamGraph() {
+        List<Member> members = fetchPlans.apply(FetchPlans.MEMBER_WITH_TEAM_GRAPH, queryFactory.selectFrom(member))
+                .fetch();
+        members.forEach(m -> m.getTeam().getName());
+    }
+
+    @Test
+    @QueryBudget(statements = 1)
+    public void teamWithMembers() {
+        List<Team> teams = fetchPlans.apply(FetchPlans.TEAM_WITH_MEMBERS, queryFactory.selectFrom(team))
+                .fetch();
+        teams.forEach(t -> assertThat(t.getMembers()).hasSize(2));
+        assertThat(teams).hasSize(5);
+    }
+
+    /**
+     * 플랜 없이 지연 로딩해도 batch fetch size 덕분에 팀 수만큼 쿼리가 나가지 않는다.
+     */
+    @Test
+    @QueryBudget(statements = 2, entityLoads = 15)
+    public void lazyLoadingIsBatched() {
+        List<Member> members = queryFactory.selectFrom(member).fetch();
+        members.forEach(m -> m.getTeam().getName());
+    }
+
+    @Test
+    public void unknownPlan() {
+        assertThatThrownBy(() -> fetchPlans.apply("nope", queryFactory.selectFrom(member)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,183 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 30, teamB));
+        em.persist(new Member("member5", 40, teamB));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void keysetPaging() {
+        List<String> usernames = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            KeysetSlice<MemberDto> slice = memberQueryRepository.findSlice(token, 2, false);
+            slice.getContent().forEach(dto -> usernames.add(dto.getUsername()));
+            token = slice.getNextToken();
+            pages++;
+        } while (token != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(usernames).containsExactly("member1", "member2", "member3", "member4", "member5");
+    }
+
+    @Test
+    public void keysetPaging_lastPageHasNoNext() {
+        KeysetSlice<MemberDto> slice = memberQueryRepository.findSlice(null, 5, true);
+
+        assertThat(slice.getContent()).hasSize(5);
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(slice.getNextToken()).isNull();
+        assertThat(slice.getTotal()).hasValue(5);
+    }
+
+    @Test
+    public void streamAll() {
+        List<String> usernames = new ArrayList<>();
+
+        long count = memberQueryRepository.streamAll(2, 2, dto -> usernames.add(dto.getUsername()));
+
+        assertThat(count).isEqualTo(5);
+        assertThat(usernames).containsExactly("member1", "member2", "member3", "member4", "member5");
+    }
+
+    @Test
+    public void streamAllNeverClears() {
+        assertThat(memberQueryRepository.streamAll(2, 0, dto -> {
+        })).isEqualTo(5);
+    }
+
+    @Test
+    public void streamAllKeepsCallerChanges() {
+        //테스트 트랜잭션에 참여하므로 flush 전 변경이 clear 로 버려지면 안 된다
+        Member loaded = em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                .getSingleResult();
+        loaded.setAge(99);
+
+        memberQueryRepository.streamAll(2, 1, dto -> {
+        });
+
+        assertThat(em.contains(loaded)).isTrue();
+        em.flush();
+        em.clear();
+        assertThat(memberQueryRepository.search("member1", 99)).hasSize(1);
+    }
+
+    @Test
+    public void search() {
+        assertThat(memberQueryRepository.search("member1", 10)).extracting("username").containsExactly("member1");
+        assertThat(memberQueryRepository.search(null, 20)).extracting("username")
+                .containsExactlyInAnyOrder("member2", "member3");
+        assertThat(memberQueryRepository.search("member4", null)).extracting("age").containsExactly(30);
+        assertThat(memberQueryRepository.search(null, null)).hasSize(5);
+
+        //같은 모양은 캐시된 템플릿을 다시 쓰면서 값만 바뀐다
+        assertThat(memberQueryRepository.search("member5", 40)).extracting("username").containsExactly("member5");
+        assertThat(memberQueryRepository.search("member5", 10)).isEmpty();
+    }
+
+    @Test
+    public void searchPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(result.getContent()).extracting("teamName").containsOnly("teamB");
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchPageSorted() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(condition,
+                PageRequest.of(0, 3, Sort.by(Sort.Order.desc("age"), Sort.Order.asc("teamName"))));
+
+        //member2, member3 은 나이가 같아서 teamName, 그다음 memberId 순
+        assertThat(result.getContent()).extracting("username").containsExactly("member5", "member4", "member2");
+    }
+
+    @Test
+    public void searchPageRejectsUnknownSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThatThrownBy(() -> memberQueryRepository.searchPage(condition,
+                PageRequest.of(0, 3, Sort.by("team.name"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @QueryBudget(statements = 1, entityLoads = 0)
+    public void searchPage_skipsCountWhenPageIsNotFull() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        //content 1건 < size 이므로 count 쿼리 없이 한 번만 나간다
+        Page<MemberTeamDto> result = memberQueryRepository.searchPage(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member1");
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidToken() {
+        assertThatThrownBy(() -> memberQueryRepository.findSlice("not-a-token", 2, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void invalidSliceSize() {
+        assertThatThrownBy(() -> memberQueryRepository.findSlice(null, 0, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberQueryRepository.findSlice(null, -1, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberView;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryBudget;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberReadRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberReadRepository memberReadRepository;
+
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+        member1Id = member1.getId();
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    //할당량은 첫 실행의 쿼리 해석까지 들어가므로 넉넉하게 잡고, 엔티티로 읽는 식의 큰 회귀만 잡는다
+    @QueryBudget(statements = 3, entityLoads = 0, flushes = 0, allocatedBytes = 32 * 1024 * 1024)
+    public void projectsWithoutManagedEntities() {
+        MemberView view = memberReadRepository.findById(member1Id);
+        List<MemberView> teamA = memberReadRepository.findByTeamName("teamA", PageRequest.of(0, 10));
+        List<MemberView> byUsername = memberReadRepository.findByUsernames(List.of("member3", "member4"));
+
+        assertThat(view).isEqualTo(new MemberView(member1Id, "member1", 10, "teamA"));
+        assertThat(teamA).extracting(MemberView::username).containsExactly("member1", "member2");
+        assertThat(byUsername).extracting(MemberView::teamName).containsExactly("teamB", null);
+
+        //읽기 모델은 영속성 컨텍스트에 아무것도 올리지 않는다
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void doesNotFlushPendingChanges() {
+        Member member1 = em.find(Member.class, member1Id);
+        member1.setAge(99);
+
+        //FlushMode.MANUAL: 쿼리 전에 auto flush 하지 않으므로 DB 에 반영된 값이 보인다
+        assertThat(memberReadRepository.findById(member1Id).age()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.support.MemberFixtures;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 100만 건을 스트리밍하는 동안 힙 사용량이 일정하게 유지되는지 확인
+ * 오래 걸리므로 -DlargeData=true 일 때만 실행
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:streaming;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=warn"})
+@EnabledIfSystemProperty(named = "largeData", matches = "true")
+class MemberStreamingHeapTest {
+
+    private static final int MEMBERS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        MemberFixtures.seed(jdbcTemplate, 1000, MEMBERS);
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+    }
+
+    @Test
+    public void heapStaysFlat() {
+        long[] usedMin = {Long.MAX_VALUE};
+        long[] usedMax = {0};
+
+        long[] seen = {0};
+        long count = memberQueryRepository.streamAll(1000, 1000, dto -> {
+            if (++seen[0] % SAMPLE_EVERY == 0) {
+                long used = usedHeapAfterGc();
+                usedMin[0] = Math.min(usedMin[0], used);
+                usedMax[0] = Math.max(usedMax[0], used);
+            }
+        });
+
+        assertThat(count).isEqualTo(MEMBERS);
+        //List<Member> 로 1M 건을 들고 있으면 수백 MB, 스트리밍이면 샘플 간 차이가 수 MB 수준
+        assertThat(usedMax[0] - usedMin[0]).isLessThan(32L * 1024 * 1024);
+    }
+
+    private long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,149 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.support.QueryTemplate;
+import study.querydsl.support.SqlCapture;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.support.ExplainAssertions.assertNoTableScan;
+
+/**
+ * 자주 호출되는 조회가 인덱스를 타는지 EXPLAIN 으로 확인한다.
+ */
+@SpringBootTest
+@Transactional
+@Import(SqlCapture.class)
+class QueryPlanTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    EntityManager em;
+
+    @BeforeEach
+    public void before() {
+        //시퀀스 구간과 겹치지 않는 id 로 넣는다 (alter sequence 는 H2 에서 커밋을 일으킨다)
+        jdbcTemplate.update("insert into team (id, name) " +
+                "select 1000000 + x, 'team' || x from system_range(1, 20)");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) " +
+                "select 1000000 + x, 'member' || x, mod(x, 100), 1000000 + mod(x - 1, 20) + 1 " +
+                "from system_range(1, 2000)");
+    }
+
+    @Test
+    public void searchByUsername() {
+        List<String> statements = SqlCapture.capture(() ->
+                assertThat(memberQueryRepository.search("member5", null)).hasSize(1));
+
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void searchPageByTeamAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(90);
+
+        List<String> statements = SqlCapture.capture(() ->
+                memberQueryRepository.searchPage(condition, PageRequest.of(0, 2)));
+
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER", "TEAM");
+    }
+
+    @Test
+    public void searchPageByUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member10");
+
+        List<String> statements = SqlCapture.capture(() ->
+                memberQueryRepository.searchPage(condition, PageRequest.of(0, 10)));
+
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void keysetNextPage() {
+        String token = new MemberCursor(50, 1000100L).encode();
+
+        List<String> statements = SqlCapture.capture(() -> {
+            KeysetSlice<MemberDto> slice = memberQueryRepository.findSlice(token, 20, false);
+            assertThat(slice.getContent()).hasSize(20);
+        });
+
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void equalsIgnoreCaseUsesNormalizedColumn() {
+        List<String> statements = SqlCapture.capture(() ->
+                assertThat(queryFactory.selectFrom(member)
+                        .where(member.username.equalsIgnoreCase("MEMBER5"))
+                        .fetch()).extracting("username").containsExactly("member5"));
+
+        assertThat(statements).allSatisfy(sql -> assertThat(sql)
+                .contains("username_normalized")
+                .doesNotContainIgnoringCase("lower("));
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void startsWithIgnoreCaseUsesNormalizedColumn() {
+        List<String> statements = SqlCapture.capture(() ->
+                //member19, member190~199, member1900~1999
+                assertThat(queryFactory.select(member.id)
+                        .from(member)
+                        .where(member.username.startsWithIgnoreCase("Member19"))
+                        .fetch()).hasSize(111));
+
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void queryTemplateUsesNormalizedColumn() {
+        Param<String> username = new Param<>(String.class, "username");
+        QueryTemplate<Long> template = QueryTemplate.of(em, queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.username.equalsIgnoreCase(username)));
+
+        assertThat(template.getJpql()).contains("usernameNormalized");
+        List<String> statements = SqlCapture.capture(() ->
+                assertThat(template.fetch(em, Map.of(username, "MEMBER5"))).containsExactly(1000005L));
+        assertNoTableScan(jdbcTemplate, statements, "MEMBER");
+    }
+
+    @Test
+    public void lowerOfUsernameReadsNormalizedColumn() {
+        //sqlFunction2 의 member.username.eq(member.username.lower()) 는 함수 호출 없이 두 컬럼 비교가 된다
+        List<String> statements = SqlCapture.capture(() ->
+                assertThat(queryFactory.select(member.id)
+                        .from(member)
+                        .where(member.id.gt(1000000L), member.username.eq(member.username.lower()))
+                        .fetch()).hasSize(2000));
+
+        assertThat(statements).allSatisfy(sql -> assertThat(sql).doesNotContainIgnoringCase("lower("));
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamAgeSummary;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.ColumnarResult;
+import study.querydsl.support.QueryBudget;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @QueryBudget(statements = 1, entityLoads = 0)
+    public void ageSummaryByTeam() {
+        assertThat(teamQueryRepository.ageSummaryByTeam()).containsExactly(
+                new TeamAgeSummary("teamA", 2, 30, 15, 10, 20),
+                new TeamAgeSummary("teamB", 2, 70, 35, 30, 40));
+    }
+
+    @Test
+    @QueryBudget(statements = 1, entityLoads = 0)
+    public void ageSummaryColumnsByTeam() {
+        ColumnarResult result = teamQueryRepository.ageSummaryColumnsByTeam();
+
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.<String>keys("team")).containsExactly("teamA", "teamB");
+        assertThat(result.longs("count")).containsExactly(2, 2);
+        assertThat(result.longs("ageSum")).containsExactly(30, 70);
+        assertThat(result.doubles("avgAge")).containsExactly(15, 35);
+        assertThat(result.ints("minAge")).containsExactly(10, 30);
+        assertThat(result.getInt("maxAge", 1)).isEqualTo(40);
+    }
+
+    @Test
+    public void columnTypeIsChecked() {
+        ColumnarResult result = teamQueryRepository.ageSummaryColumnsByTeam();
+
+        assertThatThrownBy(() -> result.ints("count")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> result.getLong("count", 2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
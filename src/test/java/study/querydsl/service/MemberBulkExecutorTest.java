@@ -0,0 +1,126 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.MemberFixtures;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 청크마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+ */
+@SpringBootTest(properties = "querydsl.bulk.chunk-size=10")
+class MemberBulkExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberBulkExecutor memberBulkExecutor;
+
+    TransactionTemplate tx;
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        member1Id = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member first = null;
+            for (int i = 0; i < 35; i++) {
+                Member m = new Member("member" + i, i, teamA);
+                em.persist(m);
+                if (first == null) {
+                    first = m;
+                }
+            }
+            return first.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+    }
+
+    @Test
+    public void updateInChunks() {
+        List<BulkProgress> progress = new ArrayList<>();
+
+        BulkResult result = memberBulkExecutor.update(member.age.lt(28),
+                clause -> clause.set(member.age, member.age.add(100)),
+                progress::add);
+
+        assertThat(result.rows()).isEqualTo(28);
+        assertThat(result.chunks()).isGreaterThanOrEqualTo(3);
+        assertThat(progress).allMatch(p -> p.chunkRows() <= 10);
+        assertThat(progress.get(progress.size() - 1).totalRows()).isEqualTo(28);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where age >= 100", Long.class))
+                .isEqualTo(28);
+    }
+
+    @Test
+    public void sparseIdsDoNotProduceEmptyChunks() {
+        //id 사이를 크게 벌려도 청크는 실제 대상 행 수만큼만 돈다
+        jdbcTemplate.update("update member set member_id = member_id * 1000 where member_id > ?", member1Id);
+        List<BulkProgress> progress = new ArrayList<>();
+
+        BulkResult result = memberBulkExecutor.update(member.age.goe(0),
+                clause -> clause.set(member.age, member.age.add(1)),
+                progress::add);
+
+        assertThat(result.rows()).isEqualTo(35);
+        assertThat(result.chunks()).isEqualTo(4);
+        assertThat(progress).extracting(BulkProgress::chunkRows).containsExactly(10L, 10L, 10L, 5L);
+    }
+
+    @Test
+    public void detachesStaleEntitiesFromCallerContext() {
+        tx.executeWithoutResult(status -> {
+            Member loaded = em.find(Member.class, member1Id);
+            assertThat(loaded.getAge()).isEqualTo(0);
+
+            memberBulkExecutor.update(member.id.eq(member1Id),
+                    clause -> clause.set(member.age, 77), BulkProgressListener.NONE);
+
+            assertThat(em.contains(loaded)).isFalse();
+            assertThat(em.find(Member.class, member1Id).getAge()).isEqualTo(77);
+        });
+    }
+
+    @Test
+    public void deleteInChunks() {
+        BulkResult result = memberBulkExecutor.delete(member.age.gt(18), BulkProgressListener.NONE);
+
+        assertThat(result.rows()).isEqualTo(16);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isEqualTo(19);
+    }
+
+    @Test
+    public void rejectsNonPositiveChunkSize() {
+        assertThatThrownBy(() -> new MemberBulkExecutor(em, null, null, null, transactionManager, 0, Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("querydsl.bulk.chunk-size");
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberBulkLoaderTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+
+    Team teamA;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        em.persist(teamA);
+        em.flush();
+    }
+
+    @Test
+    public void load() {
+        long count = memberBulkLoader.load(IntStream.range(0, 250).mapToObj(i -> {
+            Member m = new Member("bulk" + i, i % 50);
+            m.setTeam(teamA);
+            return m;
+        }));
+
+        assertThat(count).isEqualTo(250);
+        assertThat(queryFactory.select(member.count()).from(member).fetchOne()).isEqualTo(250);
+    }
+
+    @Test
+    public void loadInCallerTransactionKeepsCallerEntities() {
+        Member first = new Member("bulk0", 0);
+        first.setTeam(teamA);
+        memberBulkLoader.load(Stream.of(first));
+
+        //테스트 트랜잭션에 참여했으므로 clear 하지 않고 넣은 회원만 내린다
+        assertThat(em.contains(teamA)).isTrue();
+        assertThat(em.contains(first)).isFalse();
+    }
+
+    @Test
+    public void insertRows() {
+        long count = memberBulkLoader.insertRows(IntStream.range(0, 250)
+                .mapToObj(i -> new MemberInsertRow("jdbc" + i, i % 50, teamA.getId())));
+
+        //JDBC 로 넣은 id 블록과 하이버네이트가 받는 id 블록이 겹치지 않아야 한다
+        Member after = new Member("after", 1, em.find(Team.class, teamA.getId()));
+        em.persist(after);
+        em.flush();
+
+        assertThat(count).isEqualTo(250);
+        assertThat(queryFactory.select(member.id.countDistinct()).from(member).fetchOne()).isEqualTo(251);
+    }
+}
@@ -0,0 +1,228 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.MemberFixtures;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 시도마다 새 트랜잭션으로 커밋되므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+ */
+@Slf4j
+@SpringBootTest
+class MemberUpdateServiceTest {
+
+    private static final int HOT_MEMBERS = 4;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MemberUpdateService memberUpdateService;
+
+    TransactionTemplate tx;
+    List<Long> memberIds = new ArrayList<>();
+    Long teamBId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < HOT_MEMBERS; i++) {
+                Member m = new Member("member" + i, 0, teamA);
+                em.persist(m);
+                memberIds.add(m.getId());
+            }
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+    }
+
+    @Test
+    public void versionIsIncremented() {
+        memberUpdateService.addAge(memberIds.get(0), 5);
+        memberUpdateService.addAgeConditional(memberIds.get(0), 5);
+
+        assertThat(jdbcTemplate.queryForObject("select age from member where member_id = ?", Integer.class,
+                memberIds.get(0))).isEqualTo(10);
+        assertThat(version(memberIds.get(0))).isEqualTo(2);
+    }
+
+    @Test
+    public void setAgeIfVersion() {
+        assertThat(memberUpdateService.setAgeIfVersion(memberIds.get(0), 0, 30)).isTrue();
+        //이미 버전 1 이 되었으므로 버전 0 을 기준으로 한 수정은 실패
+        assertThat(memberUpdateService.setAgeIfVersion(memberIds.get(0), 0, 40)).isFalse();
+
+        assertThat(jdbcTemplate.queryForObject("select age from member where member_id = ?", Integer.class,
+                memberIds.get(0))).isEqualTo(30);
+    }
+
+    @Test
+    public void changeTeamDoesNotBumpTeamVersion() {
+        memberUpdateService.changeTeam(memberIds.get(0), teamBId);
+
+        assertThat(version(memberIds.get(0))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select version from team where id = ?", Long.class, teamBId))
+                .isZero();
+    }
+
+    @Test
+    public void rejectsCallInsideTransaction() {
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> memberUpdateService.addAge(memberIds.get(0), 1)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(version(memberIds.get(0))).isZero();
+    }
+
+    @Test
+    public void onlyDuplicateKeyIsRetried() {
+        assertThat(OptimisticRetry.isConflict(new DuplicateKeyException("team_stats"))).isTrue();
+        assertThat(OptimisticRetry.isConflict(new RuntimeException(new SQLException("dup", "23505")))).isTrue();
+        assertThat(OptimisticRetry.isConflict(new DataIntegrityViolationException("fk",
+                new SQLException("fk", "23506")))).isFalse();
+        assertThat(OptimisticRetry.isConflict(new IllegalArgumentException("no member"))).isFalse();
+    }
+
+    @Test
+    public void missingTeamIsNotRetried() {
+        //없는 팀으로 옮기면 FK 위반(또는 프록시 초기화 실패)이고, 몇 번을 다시 해도 같다
+        double before = registry.counter("querydsl.retry.conflicts", "name", "member.changeTeam").count();
+
+        assertThatThrownBy(() -> memberUpdateService.changeTeam(memberIds.get(0), Long.MAX_VALUE))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(registry.counter("querydsl.retry.conflicts", "name", "member.changeTeam").count())
+                .isEqualTo(before);
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        Result result = run(8, 25, "member.addAge", (service, id) -> service.addAge(id, 1));
+
+        assertThat(result.totalAge()).isEqualTo(8 * 25);
+        assertTeamStatsConsistent();
+    }
+
+    @Test
+    public void concurrentConditionalUpdatesAreNotLost() throws Exception {
+        Result result = run(8, 25, "member.addAgeConditional", (service, id) -> service.addAgeConditional(id, 1));
+
+        assertThat(result.totalAge()).isEqualTo(8 * 25);
+        assertTeamStatsConsistent();
+    }
+
+    /**
+     * 32 개 이상의 쓰기 스레드가 소수의 회원을 동시에 수정할 때 처리량과 충돌 비율
+     * -DloadTest=true 일 때만 실행
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    public void stress() throws Exception {
+        for (int threads : new int[]{32, 64}) {
+            after();
+            memberIds.clear();
+            before();
+            report("entity", threads, run(threads, 50, "member.addAge", (service, id) -> service.addAge(id, 1)));
+
+            after();
+            memberIds.clear();
+            before();
+            report("conditional", threads,
+                    run(threads, 50, "member.addAgeConditional", (service, id) -> service.addAgeConditional(id, 1)));
+        }
+    }
+
+    /**
+     * name 은 OptimisticRetry 에 넘기는 이름
+     * 충돌 카운터는 컨텍스트 전체에서 누적되므로 이 실행 동안 늘어난 만큼만 센다
+     */
+    private Result run(int threads, int updatesPerThread, String name, BiConsumer<MemberUpdateService, Long> update)
+            throws Exception {
+        double conflictsBefore = conflicts(name);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        update.accept(memberUpdateService, memberIds.get((offset + i) % HOT_MEMBERS));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Long totalAge = jdbcTemplate.queryForObject("select sum(age) from member", Long.class);
+        long conflicts = (long) (conflicts(name) - conflictsBefore);
+        return new Result((long) threads * updatesPerThread, elapsed, totalAge, conflicts);
+    }
+
+    private double conflicts(String name) {
+        return registry.counter("querydsl.retry.conflicts", "name", name).count();
+    }
+
+    private void report(String path, int threads, Result result) {
+        log.info("[{}] threads={} updates={} throughput={}/s conflicts={} ({}% of updates)",
+                path, threads, result.updates(), (long) (result.updates() * 1_000_000_000.0 / result.elapsedNanos()),
+                result.conflicts(), String.format("%.1f", result.conflicts() * 100.0 / result.updates()));
+        assertThat(result.totalAge()).isEqualTo(result.updates());
+    }
+
+    //두 경로 모두 TeamStats 가 실제 member 집계와 같아야 한다
+    private void assertTeamStatsConsistent() {
+        assertThat(jdbcTemplate.queryForObject("select age_sum from team_stats s join team t on t.id = s.team_id " +
+                "where t.name = 'teamA'", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("select sum(age) from member", Long.class));
+    }
+
+    private long version(Long memberId) {
+        return jdbcTemplate.queryForObject("select version from member where member_id = ?", Long.class, memberId);
+    }
+
+    private record Result(long updates, long elapsedNanos, long totalAge, long conflicts) {
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * SQL 마다 H2 EXPLAIN 을 실행해서 지정한 테이블을 전체 스캔(tableScan)하면 실패시킨다.
+ */
+public abstract class ExplainAssertions {
+
+    public static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
+    public static void assertNoTableScan(JdbcTemplate jdbcTemplate, List<String> statements, String... tables) {
+        assertThat(statements).as("captured statements").isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(jdbcTemplate, sql);
+            for (String table : tables) {
+                assertThat(plan)
+                        .as("full scan of %s\n%s", table, plan)
+                        .doesNotContainIgnoringCase(table + ".tableScan");
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class FastProjectionsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void bean() {
+        List<MemberDto> result = queryFactory
+                .select(FastProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("username", "age")
+                .containsExactly(tuple("member1", 10), tuple("member2", 20));
+    }
+
+    @Test
+    public void beanWithAlias() {
+        QMember memberSub = new QMember("memberSub");
+        List<UserDto> result = queryFactory
+                .select(FastProjections.bean(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(
+                                JPAExpressions
+                                        .select(memberSub.age.max())
+                                        .from(memberSub), "age")))
+                .from(member)
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result).extracting("age").containsOnly(20);
+    }
+
+    @Test
+    public void nullPrimitiveIsSkipped() {
+        MemberDto dto = FastProjections.bean(MemberDto.class, member.username, member.age)
+                .newInstance("member1", null);
+
+        assertThat(dto.getUsername()).isEqualTo("member1");
+        assertThat(dto.getAge()).isZero();
+    }
+
+    @Test
+    public void convertsNumbersWithoutLoss() {
+        MethodHandleBean<MemberDto> bean = FastProjections.bean(MemberDto.class, member.username, member.age);
+
+        //avg 처럼 Double 로 오는 값도 정수면 int 세터에 넣을 수 있다
+        assertThat(bean.newInstance("member1", 15.0).getAge()).isEqualTo(15);
+        assertThat(bean.newInstance("member1", 20L).getAge()).isEqualTo(20);
+    }
+
+    @Test
+    public void rejectsLossyNumbers() {
+        MethodHandleBean<MemberDto> bean = FastProjections.bean(MemberDto.class, member.username, member.age);
+
+        assertThatThrownBy(() -> bean.newInstance("member1", 15.5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("age");
+        assertThatThrownBy(() -> bean.newInstance("member1", 1L << 40))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bean.newInstance("member1", Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void unknownProperty() {
+        assertThatThrownBy(() -> FastProjections.bean(MemberDto.class, member.id))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
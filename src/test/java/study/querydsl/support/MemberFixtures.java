@@ -0,0 +1,31 @@
+package study.querydsl.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 벤치마크/대용량 테스트용 데이터 적재
+ * em.persist 로 수십만 건을 넣으면 적재 시간이 측정 대상보다 길어지므로 H2 system_range 로 한번에 넣는다.
+ */
+public abstract class MemberFixtures {
+
+    public static void seed(JdbcTemplate jdbcTemplate, int teams, int members) {
+        jdbcTemplate.update("insert into team (id, name) " +
+                "select x, 'team' || x from system_range(1, ?)", teams);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) " +
+                "select x, 'member' || x, mod(x, 100), mod(x - 1, ?) + 1 from system_range(1, ?)", teams, members);
+
+        jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+                "select t.id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age) " +
+                "from team t left join member m on m.team_id = t.id group by t.id");
+
+        //pooled 옵티마이저가 직접 넣은 id와 겹치지 않도록 시퀀스를 충분히 뒤로 민다
+        jdbcTemplate.execute("alter sequence team_seq restart with " + (teams + 1000));
+        jdbcTemplate.execute("alter sequence member_seq restart with " + (members + 1000));
+    }
+
+    public static void clear(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("delete from team_stats");
+        jdbcTemplate.update("delete from member");
+        jdbcTemplate.update("delete from team");
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 본문(@BeforeEach 제외)에서 하이버네이트가 실행한 작업량의 상한
+ * 음수는 검사하지 않는다는 뜻이고, 측정값은 모두 QueryBudgetExtension 리포트에 남는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /** 준비된 JDBC statement 수 */
+    long statements() default -1;
+
+    /** DB 에서 로딩된 엔티티 수 */
+    long entityLoads() default -1;
+
+    /** 초기화된 컬렉션 수 */
+    long collectionFetches() default -1;
+
+    long flushes() default -1;
+
+    /** 테스트 스레드가 할당한 바이트 */
+    long allocatedBytes() default -1;
+}
@@ -0,0 +1,153 @@
+package study.querydsl.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * @QueryBudget 이 붙은 테스트의 SQL 수/엔티티 로딩/컬렉션 초기화/flush/할당 바이트를 재서 예산을 넘으면 실패시킨다.
+ * 측정값은 hibernate.generate_statistics 통계(세션 팩토리 전체)라서 테스트를 병렬로 돌리면 안 된다.
+ *
+ * 실행이 끝나면 build/reports/query-budget.txt 에 기준값(src/test/resources/query-budget-baseline.properties)과의 차이를 남긴다.
+ * -DqueryBudget.updateBaseline=true 로 돌리면 이번 측정값을 기준값으로 저장한다.
+ * 경로는 -DqueryBudget.report / -DqueryBudget.baseline 으로 바꿀 수 있고, 파일을 쓰는 시점에 읽는다.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        Statistics statistics = statistics(context);
+        statistics.clear();
+        context.getStore(NAMESPACE).put("allocatedBytes", THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long allocatedBytes = THREADS.getCurrentThreadAllocatedBytes()
+                - context.getStore(NAMESPACE).get("allocatedBytes", Long.class);
+        Statistics statistics = statistics(context);
+
+        Map<String, Long> measured = new TreeMap<>();
+        measured.put("statements", statistics.getPrepareStatementCount());
+        measured.put("entityLoads", statistics.getEntityLoadCount());
+        measured.put("collectionFetches", statistics.getCollectionFetchCount());
+        measured.put("flushes", statistics.getFlushCount());
+        measured.put("allocatedBytes", allocatedBytes);
+
+        String testName = context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName();
+        report(context).record(testName, measured);
+
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        List<String> violations = new ArrayList<>();
+        check(violations, "statements", budget.statements(), measured);
+        check(violations, "entityLoads", budget.entityLoads(), measured);
+        check(violations, "collectionFetches", budget.collectionFetches(), measured);
+        check(violations, "flushes", budget.flushes(), measured);
+        check(violations, "allocatedBytes", budget.allocatedBytes(), measured);
+        if (!violations.isEmpty()) {
+            throw new AssertionError("query budget exceeded in " + testName + ": " + String.join(", ", violations));
+        }
+    }
+
+    private static void check(List<String> violations, String metric, long budget, Map<String, Long> measured) {
+        long value = measured.get(metric);
+        if (budget >= 0 && value > budget) {
+            violations.add(metric + " " + value + " > " + budget);
+        }
+    }
+
+    private static Statistics statistics(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context)
+                .getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    //전체 실행에서 하나만 만들고, 루트 컨텍스트가 닫힐 때 파일로 쓴다
+    private static Report report(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(Report.class, key -> new Report(), Report.class);
+    }
+
+    static class Report implements ExtensionContext.Store.CloseableResource {
+
+        private final Map<String, Long> current = new TreeMap<>();
+
+        synchronized void record(String testName, Map<String, Long> measured) {
+            measured.forEach((metric, value) -> current.put(testName + "." + metric, value));
+        }
+
+        @Override
+        public synchronized void close() {
+            Path reportPath = Path.of(System.getProperty("queryBudget.report", "build/reports/query-budget.txt"));
+            Path baselinePath = Path.of(System.getProperty("queryBudget.baseline",
+                    "src/test/resources/query-budget-baseline.properties"));
+            try {
+                Properties baseline = load(baselinePath);
+                Files.createDirectories(reportPath.toAbsolutePath().getParent());
+                try (Writer out = Files.newBufferedWriter(reportPath)) {
+                    out.write(String.format("%-70s %15s %15s %10s%n", "metric", "baseline", "current", "delta"));
+                    for (Map.Entry<String, Long> entry : current.entrySet()) {
+                        String base = baseline.getProperty(entry.getKey());
+                        String delta = base == null ? "new" : percent(Long.parseLong(base), entry.getValue());
+                        out.write(String.format("%-70s %15s %15d %10s%n",
+                                entry.getKey(), base == null ? "-" : base, entry.getValue(), delta));
+                    }
+                }
+                if (Boolean.getBoolean("queryBudget.updateBaseline")) {
+                    current.forEach((key, value) -> baseline.setProperty(key, String.valueOf(value)));
+                    Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+                    try (Writer out = Files.newBufferedWriter(baselinePath)) {
+                        baseline.store(out, "QueryBudgetExtension baseline");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static Properties load(Path baselinePath) throws IOException {
+            Properties properties = new Properties();
+            if (Files.exists(baselinePath)) {
+                try (Reader in = Files.newBufferedReader(baselinePath)) {
+                    properties.load(in);
+                }
+            }
+            return properties;
+        }
+
+        private static String percent(long baseline, long current) {
+            if (baseline == current) {
+                return "0%";
+            }
+            if (baseline == 0) {
+                return "+" + current;
+            }
+            return String.format("%+.1f%%", (current - baseline) * 100.0 / baseline);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.testkit.engine.EngineExecutionResults;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.testkit.engine.EventConditions.*;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * Budgeted 를 JUnit 엔진으로 따로 돌려서 예산 초과 시 실패하는지, 리포트/기준값 파일을 쓰는지 확인한다.
+ * Budgeted 는 queryBudget.selfTest 가 켜져 있을 때만 돌므로 전체 테스트 실행에서는 건너뛴다.
+ */
+class QueryBudgetExtensionTest {
+
+    private static final List<String> PROPERTIES = List.of(
+            "queryBudget.selfTest", "queryBudget.report", "queryBudget.baseline", "queryBudget.updateBaseline");
+
+    @TempDir
+    Path dir;
+
+    private final Map<String, String> saved = new HashMap<>();
+
+    @BeforeEach
+    public void before() {
+        PROPERTIES.forEach(name -> saved.put(name, System.getProperty(name)));
+        System.setProperty("queryBudget.selfTest", "true");
+        System.setProperty("queryBudget.report", dir.resolve("report.txt").toString());
+        System.setProperty("queryBudget.baseline", dir.resolve("baseline.properties").toString());
+    }
+
+    @AfterEach
+    public void after() {
+        saved.forEach((name, value) -> {
+            if (value == null) {
+                System.clearProperty(name);
+            } else {
+                System.setProperty(name, value);
+            }
+        });
+    }
+
+    @Test
+    public void failsOverBudgetAndWritesReport() throws IOException {
+        System.setProperty("queryBudget.updateBaseline", "true");
+
+        EngineExecutionResults results = run();
+
+        results.testEvents().assertStatistics(stats -> stats.succeeded(1).failed(2));
+        results.testEvents().assertThatEvents()
+                .haveExactly(1, event(test("overStatements"), finishedWithFailure(
+                        instanceOf(AssertionError.class), message(m -> m.contains("statements 2 > 1")))))
+                .haveExactly(1, event(test("overAllocatedBytes"), finishedWithFailure(
+                        instanceOf(AssertionError.class), message(m -> m.contains("allocatedBytes")))));
+
+        Properties baseline = new Properties();
+        try (Reader in = Files.newBufferedReader(dir.resolve("baseline.properties"))) {
+            baseline.load(in);
+        }
+        assertThat(baseline.getProperty("Budgeted.withinBudget.statements")).isEqualTo("1");
+        assertThat(baseline.getProperty("Budgeted.overStatements.statements")).isEqualTo("2");
+        assertThat(baseline).containsKey("Budgeted.overAllocatedBytes.allocatedBytes");
+        assertThat(Files.readString(dir.resolve("report.txt"))).contains("Budgeted.withinBudget.statements");
+    }
+
+    @Test
+    public void reportComparesWithStoredBaseline() throws IOException {
+        Files.writeString(dir.resolve("baseline.properties"), "Budgeted.withinBudget.statements=2\n");
+        System.setProperty("queryBudget.updateBaseline", "false");
+
+        run();
+
+        assertThat(Files.readAllLines(dir.resolve("report.txt")))
+                .anySatisfy(line -> assertThat(line).startsWith("Budgeted.withinBudget.statements ").contains("-50.0%"))
+                .anySatisfy(line -> assertThat(line).startsWith("Budgeted.overStatements.statements ").endsWith("new"));
+        //updateBaseline 이 꺼져 있으면 기준값은 그대로
+        assertThat(Files.readString(dir.resolve("baseline.properties"))).isEqualTo("Budgeted.withinBudget.statements=2\n");
+    }
+
+    private static EngineExecutionResults run() {
+        return EngineTestKit.engine("junit-jupiter")
+                .selectors(selectClass(Budgeted.class))
+                .execute();
+    }
+
+    @SpringBootTest
+    @Transactional
+    @EnabledIfSystemProperty(named = "queryBudget.selfTest", matches = "true")
+    static class Budgeted {
+
+        @Autowired
+        JPAQueryFactory queryFactory;
+
+        @Test
+        @QueryBudget(statements = 1)
+        public void withinBudget() {
+            queryFactory.selectFrom(member).fetch();
+        }
+
+        @Test
+        @QueryBudget(statements = 1)
+        public void overStatements() {
+            queryFactory.selectFrom(member).fetch();
+            queryFactory.selectFrom(member).fetch();
+        }
+
+        @Test
+        @QueryBudget(allocatedBytes = 1)
+        public void overAllocatedBytes() {
+            assertThat(new byte[1024]).hasSize(1024);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class QueryMetricsTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void recordsLatencyRowsStatementsAndEntities() {
+        List<Member> result = queryMetrics.fetch("test.members", queryFactory.selectFrom(member));
+
+        assertThat(result).hasSize(2);
+        Timer timer = registry.get("querydsl.query").tags("name", "test.members", "outcome", "success").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(registry.get("querydsl.query.rows").tag("name", "test.members").summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(registry.get("querydsl.query.statements").tag("name", "test.members").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("querydsl.query.entities.loaded").tag("name", "test.members").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void recordsFailedQueries() {
+        assertThatThrownBy(() -> queryMetrics.<List<Member>>record("test.failing", () -> {
+            queryFactory.selectFrom(member).fetch();
+            throw new IllegalStateException("boom");
+        }, List::size, () -> "select member"))
+                .isInstanceOf(IllegalStateException.class);
+
+        Timer timer = registry.get("querydsl.query")
+                .tags("name", "test.failing", "outcome", "error", "exception", "IllegalStateException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(registry.get("querydsl.query.statements").tag("name", "test.failing").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("querydsl.query").tags("name", "test.failing", "outcome", "success").timer().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,224 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import study.querydsl.dto.MemberView;
+import study.querydsl.dto.QMemberView;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 조회는 전용 스레드의 자기 트랜잭션에서 일어나므로 데이터를 커밋해두고 직접 정리한다.
+ */
+@Slf4j
+@SpringBootTest
+class ReactiveQueryExecutorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ReactiveQueryExecutor reactiveQueryExecutor;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+    }
+
+    @Test
+    public void streamsInKeyOrderAcrossChunks() {
+        MemberFixtures.seed(jdbcTemplate, 2, 100);
+        AtomicReference<String> queryThread = new AtomicReference<>();
+
+        List<MemberView> views = reactiveQueryExecutor.stream(queryFactory -> {
+                    queryThread.set(Thread.currentThread().getName());
+                    return views(queryFactory.select(new QMemberView(member.id, member.username, member.age, team.name)))
+                            .where(member.age.goe(50));
+                }, member.id, MemberView::id, 7)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(views).hasSize(50);
+        assertThat(views).extracting(MemberView::id).isSorted();
+        assertThat(views).allSatisfy(view -> assertThat(view.age()).isGreaterThanOrEqualTo(50));
+        assertThat(queryThread.get()).startsWith("reactive-query");
+    }
+
+    @Test
+    public void fetchOne() {
+        MemberFixtures.seed(jdbcTemplate, 2, 100);
+
+        Long count = reactiveQueryExecutor
+                .fetchOne(queryFactory -> queryFactory.select(member.count()).from(member))
+                .block(Duration.ofSeconds(10));
+
+        assertThat(count).isEqualTo(100);
+    }
+
+    @Test
+    public void fetchesOnlyWhatSubscriberRequests() {
+        MemberFixtures.seed(jdbcTemplate, 2, 100);
+        AtomicInteger chunkQueries = new AtomicInteger();
+        Flux<MemberView> stream = reactiveQueryExecutor.stream(queryFactory -> {
+            chunkQueries.incrementAndGet();
+            return views(queryFactory.select(new QMemberView(member.id, member.username, member.age, team.name)));
+        }, member.id, MemberView::id, 10);
+
+        StepVerifier.create(stream, 0)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .then(() -> assertThat(chunkQueries.get()).isLessThanOrEqualTo(2))
+                .thenRequest(20)
+                .expectNextCount(20)
+                //21건 소비: 3번째 chunk 까지 + 미리 읽은 chunk 하나
+                .then(() -> assertThat(chunkQueries.get()).isLessThanOrEqualTo(4))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(chunkQueries.get()).isLessThan(10);
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() throws Exception {
+        //스레드 1개 + 대기 1개
+        ReactiveQueryExecutor saturated = new ReactiveQueryExecutor(queryFactory, transactionManager,
+                1, 1, 500, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Function<JPAQueryFactory, JPAQuery<Long>> blocking = queryFactory -> {
+                started.countDown();
+                await(release);
+                return queryFactory.select(member.count()).from(member);
+            };
+            Mono<Long> running = saturated.fetchOne(blocking).cache();
+            running.subscribe();
+            //첫 작업이 스레드를 잡은 뒤에 넣어야 다음 작업이 대기열에 들어간다
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Mono<Long> queued = saturated.fetchOne(blocking).cache();
+            queued.subscribe();
+
+            StepVerifier.create(saturated.fetchOne(blocking))
+                    .expectError(RejectedExecutionException.class)
+                    .verify(Duration.ofSeconds(10));
+
+            release.countDown();
+            assertThat(running.block(Duration.ofSeconds(10))).isZero();
+            assertThat(queued.block(Duration.ofSeconds(10))).isZero();
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    /**
+     * 느린 구독자 여럿이 큰 결과를 동시에 읽어도 읽어온 뒤 아직 소비되지 않은 행은 구독자당 chunk 두 개를 넘지 않는다.
+     * -DloadTest=true 일 때만 실행
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "loadTest", matches = "true")
+    public void boundedMemoryUnderSlowSubscribers() throws Exception {
+        int subscribers = 32;
+        int chunkSize = 500;
+        MemberFixtures.seed(jdbcTemplate, 100, 500_000);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        //DB 에서 실제로 읽혀 온 행 수 (쿼리를 만든 횟수가 아니라 fetch 결과로 센다)
+        AtomicLong fetched = new AtomicLong();
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong maxInFlight = new AtomicLong();
+        List<Disposable> subscriptions = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(reactiveQueryExecutor.stream(queryFactory -> countingViews(fetched),
+                            member.id, MemberView::id, chunkSize)
+                    .delayElements(Duration.ofMillis(1))
+                    .subscribe(view -> {
+                        long done = consumed.incrementAndGet();
+                        maxInFlight.accumulateAndGet(fetched.get() - done, Math::max);
+                    }));
+        }
+
+        //GC 뒤에 재서 쓰레기가 아니라 실제로 붙잡혀 있는 양만 본다
+        long maxHeap = 0;
+        for (int i = 0; i < 50; i++) {
+            Thread.sleep(100);
+            System.gc();
+            maxHeap = Math.max(maxHeap, memory.getHeapMemoryUsage().getUsed());
+        }
+        subscriptions.forEach(Disposable::dispose);
+
+        long maxHeapGrowth = maxHeap - baseline;
+        log.info("[reactive] subscribers={} consumed={} fetched={} maxInFlight={} maxHeapGrowth={}MB",
+                subscribers, consumed.get(), fetched.get(), maxInFlight.get(), maxHeapGrowth / (1024 * 1024));
+        assertThat(consumed.get()).isPositive();
+        //구독자마다 내보내는 중인 chunk 하나 + 미리 읽은 chunk 하나까지만 쌓인다
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo((long) subscribers * chunkSize * 2);
+        //최대 32,000 건의 MemberView 만 붙잡으므로 수 MB 수준 (50만 건을 모두 쌓으면 수십 MB)
+        assertThat(maxHeapGrowth).isLessThan(32L * 1024 * 1024);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JPAQuery<MemberView> countingViews(AtomicLong fetched) {
+        JPAQuery<MemberView> query = new JPAQuery<>(em) {
+            @Override
+            public List<MemberView> fetch() {
+                List<MemberView> rows = super.fetch();
+                fetched.addAndGet(rows.size());
+                return rows;
+            }
+        };
+        return views(query.select(new QMemberView(member.id, member.username, member.age, team.name)));
+    }
+
+    private static <T> JPAQuery<T> views(JPAQuery<T> query) {
+        return query.from(member).leftJoin(member.team, team);
+    }
+}
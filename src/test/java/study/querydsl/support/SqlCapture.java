@@ -0,0 +1,48 @@
+package study.querydsl.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 블록 안에서 실행된 조회 SQL 을 파라미터 값이 채워진 형태로 모은다.
+ * p6spy 리스너로 등록되어야 하므로 테스트에서 @Import(SqlCapture.class) 로 빈으로 올린다.
+ */
+public class SqlCapture extends JdbcEventListener {
+
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public static List<String> capture(Runnable block) {
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            block.run();
+        } finally {
+            captured.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                    SQLException e) {
+        add(statementInformation);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                                    SQLException e) {
+        add(statementInformation);
+    }
+
+    private static void add(StatementInformation statementInformation) {
+        List<String> statements = captured.get();
+        if (statements != null) {
+            statements.add(statementInformation.getSqlWithValues());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package study.querydsl.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 원래 서브쿼리와 같은 결과를 내면서, 실행되는 SQL 에는 서브쿼리가 남지 않는지 확인
+ */
+@SpringBootTest
+@Transactional
+@Import(SqlCapture.class)
+class SubqueryRewriterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    SubqueryRewriter subqueryRewriter;
+
+    QMember memberSub = new QMember("memberSub");
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void scalarMax() {
+        List<String> statements = SqlCapture.capture(() -> {
+            Integer maxAge = subqueryRewriter.scalar(JPAExpressions.select(memberSub.age.max()).from(memberSub))
+                    .orElseThrow();
+            List<Member> result = queryFactory
+                    .selectFrom(member)
+                    .where(member.age.eq(maxAge))
+                    .fetch();
+            assertThat(result).extracting("age").containsExactly(40);
+        });
+
+        assertThat(statements).hasSize(2).noneMatch(SubqueryRewriterTest::hasSubquery);
+    }
+
+    @Test
+    public void scalarAvg() {
+        Double avgAge = subqueryRewriter.scalar(JPAExpressions.select(memberSub.age.avg()).from(memberSub))
+                .orElseThrow();
+
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.goe(avgAge))
+                .fetch();
+
+        assertThat(result).extracting("age").containsExactly(30, 40);
+    }
+
+    @Test
+    public void scalarWithoutRows() {
+        assertThat(subqueryRewriter.scalar(JPAExpressions
+                .select(memberSub.age.avg())
+                .from(memberSub)
+                .where(memberSub.age.gt(100)))).isEmpty();
+    }
+
+    @Test
+    public void inList() {
+        List<String> statements = SqlCapture.capture(() -> {
+            List<Member> result = queryFactory
+                    .selectFrom(member)
+                    .where(subqueryRewriter.in(member.age, JPAExpressions
+                            .select(memberSub.age)
+                            .from(memberSub)
+                            .where(memberSub.age.gt(10))))
+                    .fetch();
+            assertThat(result).extracting("age").containsExactlyInAnyOrder(20, 30, 40);
+        });
+
+        assertThat(statements).noneMatch(SubqueryRewriterTest::hasSubquery);
+    }
+
+    @Test
+    public void windowFunctionInSelect() {
+        List<Tuple> result = queryFactory
+                .select(member.username,
+                        WindowFunctions.maxOver(member.age),
+                        WindowFunctions.avgOver(member.age, member.team.id))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting(t -> t.get(0, String.class), t -> t.get(1, Integer.class), t -> t.get(2, Double.class))
+                .containsExactly(
+                        tuple("member1", 40, 15.0),
+                        tuple("member2", 40, 15.0),
+                        tuple("member3", 40, 35.0),
+                        tuple("member4", 40, 35.0));
+    }
+
+    @Test
+    public void windowFunctionSeesOnlyFilteredRows() {
+        //over () 는 where 를 거친 행만 보므로 전체 테이블을 보는 서브쿼리와 값이 다르다
+        List<Tuple> result = queryFactory
+                .select(member.username,
+                        WindowFunctions.maxOver(member.age),
+                        JPAExpressions.select(memberSub.age.max()).from(memberSub))
+                .from(member)
+                .where(member.age.lt(30))
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting(t -> t.get(0, String.class), t -> t.get(1, Integer.class), t -> t.get(2, Integer.class))
+                .containsExactly(
+                        tuple("member1", 20, 40),
+                        tuple("member2", 20, 40));
+    }
+
+    //use_sql_comments 로 붙는 HQL 주석은 빼고 본다
+    private static boolean hasSubquery(String sql) {
+        String withoutComments = sql.replaceAll("(?s)/\\*.*?\\*/", "").toLowerCase();
+        return withoutComments.indexOf("select") != withoutComments.lastIndexOf("select");
+    }
+}
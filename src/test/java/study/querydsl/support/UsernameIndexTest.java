@@ -0,0 +1,201 @@
+package study.querydsl.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberView;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberReadRepository;
+import study.querydsl.service.BulkProgressListener;
+import study.querydsl.service.MemberBulkExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.support.TrigramIndex.Match.*;
+
+/**
+ * 색인은 커밋된 변경만 반영하므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+ */
+@SpringBootTest
+class UsernameIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    MemberReadRepository memberReadRepository;
+
+    @Autowired
+    MemberBulkExecutor memberBulkExecutor;
+
+    TransactionTemplate tx;
+    Long aliceId;
+
+    @BeforeEach
+    public void before() {
+        MemberFixtures.clear(jdbcTemplate);
+        usernameIndex.rebuild();
+        tx = new TransactionTemplate(transactionManager);
+        aliceId = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member alice = new Member("Alice.Kim", 10, teamA);
+            em.persist(alice);
+            em.persist(new Member("bob.Lee", 20, teamA));
+            em.persist(new Member("malice", 30, null));
+            return alice.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        MemberFixtures.clear(jdbcTemplate);
+        usernameIndex.rebuild();
+    }
+
+    @Test
+    public void findsCommittedMembersIgnoringCase() {
+        assertThat(usernames("ALICE", CONTAINS)).containsExactly("Alice.Kim", "malice");
+        assertThat(usernames("ali", PREFIX)).containsExactly("Alice.Kim");
+        assertThat(usernames("bob.lee", EXACT)).containsExactly("bob.Lee");
+        //3글자보다 짧으면 전체를 훑는다
+        assertThat(usernames(".", CONTAINS)).containsExactly("Alice.Kim", "bob.Lee");
+        assertThat(usernames("nobody", CONTAINS)).isEmpty();
+    }
+
+    @Test
+    public void followsRenameAndRemove() {
+        tx.executeWithoutResult(status -> em.find(Member.class, aliceId).setUsername("carol"));
+        assertThat(usernames("alice", CONTAINS)).containsExactly("malice");
+        assertThat(usernames("carol", EXACT)).containsExactly("carol");
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, aliceId)));
+        assertThat(usernameIndex.find("carol", EXACT, 10)).isEmpty();
+    }
+
+    @Test
+    public void ignoresRolledBackChanges() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("dave", 40, null));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(usernameIndex.find("dave", EXACT, 10)).isEmpty();
+    }
+
+    @Test
+    public void followsBulkUpdate() {
+        memberBulkExecutor.update(member.id.eq(aliceId),
+                clause -> clause.set(member.username, "erin"), BulkProgressListener.NONE);
+
+        assertThat(usernameIndex.find("erin", EXACT, 10)).containsExactly(aliceId);
+        assertThat(usernameIndex.find("alice", PREFIX, 10)).isEmpty();
+    }
+
+    @Test
+    public void concurrentRenamesEndWithCommittedValue() throws Exception {
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        String name = "writer" + writer + "-" + i;
+                        try {
+                            tx.executeWithoutResult(status -> em.find(Member.class, aliceId).setUsername(name));
+                        } catch (OptimisticLockingFailureException ignored) {
+                            //버전 충돌로 진 쓰기는 커밋되지 않았으므로 색인에도 없어야 한다
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        String committed = jdbcTemplate.queryForObject("select username from member where member_id = ?",
+                String.class, aliceId);
+        assertThat(usernameIndex.find(committed, EXACT, 10)).containsExactly(aliceId);
+    }
+
+    @Test
+    public void ageOnlyUpdateDoesNotRefresh() {
+        //색인을 거치지 않고 이름을 바꿔 두면, 다시 읽었는지를 색인 내용으로 알 수 있다
+        jdbcTemplate.update("update member set username = 'hidden' where member_id = ?", aliceId);
+
+        tx.executeWithoutResult(status -> em.find(Member.class, aliceId).setAge(11));
+        assertThat(usernameIndex.find("hidden", EXACT, 10)).isEmpty();
+
+        tx.executeWithoutResult(status -> em.find(Member.class, aliceId).setUsername("grace"));
+        assertThat(usernameIndex.find("grace", EXACT, 10)).containsExactly(aliceId);
+    }
+
+    @Test
+    public void olderVersionDoesNotOverwrite() {
+        jdbcTemplate.update("update member set username = 'newer', version = version + 2 where member_id = ?", aliceId);
+        usernameIndex.refresh(List.of(aliceId));
+        //늦게 도착한 예전 읽기를 흉내낸다
+        jdbcTemplate.update("update member set username = 'older', version = version - 1 where member_id = ?", aliceId);
+        usernameIndex.refresh(List.of(aliceId));
+
+        assertThat(usernameIndex.find("newer", EXACT, 10)).containsExactly(aliceId);
+        assertThat(usernameIndex.find("older", EXACT, 10)).isEmpty();
+    }
+
+    @Test
+    public void rejectsInvalidSearchArguments() {
+        assertThatThrownBy(() -> memberReadRepository.searchByUsername(null, CONTAINS, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberReadRepository.searchByUsername("alice", CONTAINS, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberReadRepository.searchByUsername("alice", CONTAINS, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void compactsStalePostings() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 5_000; i++) {
+            index.put(1, "name" + i);
+        }
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.find("name4999", EXACT, 10)).containsExactly(1L);
+        assertThat(index.find("name0", EXACT, 10)).isEmpty();
+    }
+
+    private List<String> usernames(String query, TrigramIndex.Match match) {
+        return memberReadRepository.searchByUsername(query, match, 10).stream()
+                .map(MemberView::username)
+                .toList();
+    }
+}